@@ -0,0 +1,158 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The owners and pets of the PetClinic instance under test, which the scenarios pick
+ * from. They are read from the CSV export of the instance
+ * ({@code GET /owners/export.csv}), one row per visit, so only the ids and the fields the
+ * scenarios need are kept.
+ *
+ * @param owners the owners
+ * @param pets the pets
+ */
+record ClinicData(List<Owner> owners, List<Pet> pets) {
+
+	Owner randomOwner(Random random) {
+		return this.owners.get(random.nextInt(this.owners.size()));
+	}
+
+	Pet randomPet(Random random) {
+		return this.pets.get(random.nextInt(this.pets.size()));
+	}
+
+	/**
+	 * Read the owners and pets of a CSV export.
+	 * @param csv the export, whose first row names the columns
+	 * @return the owners and pets, in the order of the export
+	 */
+	static ClinicData read(Reader csv) throws IOException {
+		BufferedReader reader = new BufferedReader(csv);
+		List<String> header = readRow(reader);
+		if (header == null) {
+			throw new IllegalStateException("Empty export");
+		}
+		int ownerId = header.indexOf("ownerId");
+		int lastName = header.indexOf("lastName");
+		int petId = header.indexOf("petId");
+		int petName = header.indexOf("petName");
+		int petBirthDate = header.indexOf("petBirthDate");
+		int petType = header.indexOf("petType");
+		List<Owner> owners = new ArrayList<>();
+		List<Pet> pets = new ArrayList<>();
+		List<String> row;
+		while ((row = readRow(reader)) != null) {
+			int owner = Integer.parseInt(row.get(ownerId));
+			if (owners.isEmpty() || owners.get(owners.size() - 1).id() != owner) {
+				owners.add(new Owner(owner, row.get(lastName)));
+			}
+			if (!row.get(petId).isEmpty()) {
+				int pet = Integer.parseInt(row.get(petId));
+				if (pets.isEmpty() || pets.get(pets.size() - 1).id() != pet) {
+					pets.add(new Pet(owner, pet, row.get(petName), row.get(petBirthDate), row.get(petType)));
+				}
+			}
+		}
+		if (owners.isEmpty() || pets.isEmpty()) {
+			throw new IllegalStateException("The export holds no owner or no pet: seed some with --owners");
+		}
+		return new ClinicData(List.copyOf(owners), List.copyOf(pets));
+	}
+
+	/**
+	 * Read the fields of the next row, which spans several lines if a quoted field
+	 * contains line breaks.
+	 * @return the fields, or {@code null} at the end of the input
+	 */
+	static List<String> readRow(BufferedReader reader) throws IOException {
+		String line = reader.readLine();
+		if (line == null) {
+			return null;
+		}
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		int i = 0;
+		while (true) {
+			if (i == line.length()) {
+				String continuation = quoted ? reader.readLine() : null;
+				if (continuation == null) {
+					break;
+				}
+				field.append('\n');
+				line = continuation;
+				i = 0;
+				continue;
+			}
+			char c = line.charAt(i++);
+			if (quoted) {
+				if (c != '"') {
+					field.append(c);
+				}
+				else if (i < line.length() && line.charAt(i) == '"') {
+					field.append('"');
+					i++;
+				}
+				else {
+					quoted = false;
+				}
+			}
+			else if (c == '"') {
+				quoted = true;
+			}
+			else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			}
+			else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	/**
+	 * An owner of the instance under test.
+	 *
+	 * @param id the id of the owner
+	 * @param lastName the last name of the owner
+	 */
+	record Owner(int id, String lastName) {
+
+	}
+
+	/**
+	 * A pet of the instance under test.
+	 *
+	 * @param ownerId the id of the owner of the pet
+	 * @param id the id of the pet
+	 * @param name the name of the pet
+	 * @param birthDate the birth date of the pet, as {@code yyyy-MM-dd}
+	 * @param type the name of the type of the pet
+	 */
+	record Pet(int ownerId, int id, String name, String birthDate, String type) {
+
+	}
+
+}
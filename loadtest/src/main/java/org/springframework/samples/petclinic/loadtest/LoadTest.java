@@ -0,0 +1,175 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.samples.petclinic.loadtest.PetClinicClient.EndpointResult;
+
+/**
+ * Drives the front-desk {@link Scenario scenarios} against a running PetClinic instance
+ * and reports the latency distribution of every endpoint.
+ * <p>
+ * The run seeds the requested number of owners through the bulk import, reads back the
+ * ids of all owners and pets from the export, then lets each user pick weighted scenarios
+ * in a loop: first during the warmup, which is not recorded, then for the measured
+ * duration. The latencies are printed, written as one {@code .hgrm} percentile
+ * distribution per endpoint plus a {@code summary.csv}, and the process exits with status
+ * 1 if the 99th percentile of an endpoint exceeds {@code --max-p99}.
+ * </p>
+ */
+public final class LoadTest {
+
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+	private final LoadTestOptions options;
+
+	private final PetClinicClient client;
+
+	private LoadTest(LoadTestOptions options) {
+		this.options = options;
+		this.client = new PetClinicClient(options.baseUrl());
+	}
+
+	public static void main(String[] args) throws Exception {
+		LoadTestOptions options = LoadTestOptions.parse(args);
+		boolean withinBudget = new LoadTest(options).run(System.out);
+		System.exit(withinBudget ? 0 : 1);
+	}
+
+	private boolean run(PrintStream out) throws Exception {
+		Random random = new Random(this.options.seed());
+		if (this.options.owners() > 0) {
+			int imported = new Seeder(this.client, random).seed(this.options.owners(), this.options.petsPerOwner(),
+					this.options.visitsPerPet());
+			out.printf("Seeded %d owners%n", imported);
+		}
+		ClinicData data = loadData();
+		out.printf("Driving %d owners and %d pets with %d users%n", data.owners().size(), data.pets().size(),
+				this.options.users());
+		ExecutorService users = Executors.newFixedThreadPool(this.options.users());
+		try {
+			drive(users, data, this.options.warmup(), random.nextLong());
+			this.client.setRecording(true);
+			drive(users, data, this.options.duration(), random.nextLong());
+			this.client.setRecording(false);
+		}
+		finally {
+			users.shutdownNow();
+		}
+		return report(this.client.results(), out);
+	}
+
+	private ClinicData loadData() throws IOException, InterruptedException {
+		HttpRequest.Builder request = HttpRequest.newBuilder(this.client.resolve("/owners/export.csv"));
+		try (InputStream export = this.client.send(request)) {
+			return ClinicData.read(new InputStreamReader(export, StandardCharsets.UTF_8));
+		}
+	}
+
+	private void drive(ExecutorService users, ClinicData data, Duration duration, long seed) throws Exception {
+		long end = System.nanoTime() + duration.toNanos();
+		long thinkTime = this.options.thinkTime().toMillis();
+		List<Future<?>> running = new ArrayList<>();
+		for (int i = 0; i < this.options.users(); i++) {
+			Random random = new Random(seed + i);
+			running.add(users.submit(() -> {
+				while (System.nanoTime() < end) {
+					Scenario.pick(random).run(this.client, data, random);
+					if (thinkTime > 0) {
+						Thread.sleep(thinkTime);
+					}
+				}
+				return null;
+			}));
+		}
+		for (Future<?> user : running) {
+			user.get();
+		}
+	}
+
+	private boolean report(SortedMap<String, EndpointResult> results, PrintStream out) throws IOException {
+		Path output = this.options.output();
+		Files.createDirectories(output);
+		double seconds = this.options.duration().toMillis() / 1000.0;
+		boolean withinBudget = true;
+		StringBuilder summary = new StringBuilder("endpoint,count,errors,throughput,p50,p90,p99,p99.9,max\n");
+		out.printf("%n%-50s %8s %6s %8s %8s %8s %8s %8s %8s%n", "Endpoint (ms)", "Count", "Errors", "Req/s", "p50",
+				"p90", "p99", "p99.9", "Max");
+		for (Map.Entry<String, EndpointResult> entry : results.entrySet()) {
+			Histogram latencies = entry.getValue().latencies();
+			List<String> values = new ArrayList<>();
+			values.add(String.valueOf(latencies.getTotalCount()));
+			values.add(String.valueOf(entry.getValue().errors()));
+			values.add(format(latencies.getTotalCount() / seconds));
+			for (double percentile : PERCENTILES) {
+				values.add(format(millis(latencies.getValueAtPercentile(percentile))));
+			}
+			values.add(format(millis(latencies.getMaxValue())));
+			out.printf("%-50s %8s %6s %8s %8s %8s %8s %8s %8s%n", entry.getKey(), values.get(0), values.get(1),
+					values.get(2), values.get(3), values.get(4), values.get(5), values.get(6), values.get(7));
+			summary.append('"').append(entry.getKey()).append("\",").append(String.join(",", values)).append('\n');
+			try (PrintStream hgrm = new PrintStream(Files.newOutputStream(output.resolve(slug(entry.getKey()))), false,
+					StandardCharsets.UTF_8)) {
+				latencies.outputPercentileDistribution(hgrm, 1000.0);
+			}
+			if (this.options.maxP99() != null && latencies.getValueAtPercentile(99) > TimeUnit.NANOSECONDS
+				.toMicros(this.options.maxP99().toNanos())) {
+				out.printf("p99 of %s exceeds %s%n", entry.getKey(), this.options.maxP99());
+				withinBudget = false;
+			}
+		}
+		Files.writeString(output.resolve("summary.csv"), summary);
+		out.printf("%nHistograms written to %s%n", output.toAbsolutePath());
+		return withinBudget;
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.1f", value);
+	}
+
+	/**
+	 * Turn an endpoint name such as {@code GET /owners/{ownerId}} into a file name such
+	 * as {@code get-owners-ownerid.hgrm}.
+	 */
+	static String slug(String endpoint) {
+		return endpoint.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "") + ".hgrm";
+	}
+
+}
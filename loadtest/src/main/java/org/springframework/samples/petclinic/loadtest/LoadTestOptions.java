@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options of a load test, given on the command line as {@code --name=value}.
+ *
+ * @param baseUrl the root of the PetClinic instance to drive ({@code --base-url})
+ * @param users the number of concurrent users ({@code --users})
+ * @param warmup how long to run before recording ({@code --warmup})
+ * @param duration how long to record ({@code --duration})
+ * @param thinkTime the pause of a user between two scenarios ({@code --think-time})
+ * @param owners the number of owners to seed before the run, 0 to seed nothing
+ * ({@code --owners})
+ * @param petsPerOwner the maximum number of pets of a seeded owner
+ * ({@code --pets-per-owner})
+ * @param visitsPerPet the maximum number of visits of a seeded pet
+ * ({@code --visits-per-pet})
+ * @param output the directory the histograms are written to ({@code --output})
+ * @param maxP99 the 99th percentile latency that no endpoint may exceed, or {@code null}
+ * ({@code --max-p99})
+ * @param seed the seed of the random generators, for reproducible runs ({@code --seed})
+ */
+record LoadTestOptions(URI baseUrl, int users, Duration warmup, Duration duration, Duration thinkTime, int owners,
+		int petsPerOwner, int visitsPerPet, Path output, Duration maxP99, long seed) {
+
+	private static final List<String> NAMES = List.of("base-url", "users", "warmup", "duration", "think-time", "owners",
+			"pets-per-owner", "visits-per-pet", "output", "max-p99", "seed");
+
+	static LoadTestOptions parse(String... args) {
+		Map<String, String> values = new HashMap<>();
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			if (!arg.startsWith("--") || separator < 0) {
+				throw new IllegalArgumentException("Expected --name=value but got " + arg);
+			}
+			String name = arg.substring(2, separator);
+			if (!NAMES.contains(name)) {
+				throw new IllegalArgumentException("Unknown option --" + name + ", expected one of " + NAMES);
+			}
+			values.put(name, arg.substring(separator + 1));
+		}
+		return new LoadTestOptions(URI.create(values.getOrDefault("base-url", "http://localhost:8080")),
+				Integer.parseInt(values.getOrDefault("users", "50")),
+				Duration.parse(values.getOrDefault("warmup", "PT10S")),
+				Duration.parse(values.getOrDefault("duration", "PT60S")),
+				Duration.parse(values.getOrDefault("think-time", "PT0S")),
+				Integer.parseInt(values.getOrDefault("owners", "1000")),
+				Integer.parseInt(values.getOrDefault("pets-per-owner", "3")),
+				Integer.parseInt(values.getOrDefault("visits-per-pet", "4")),
+				Path.of(values.getOrDefault("output", "target/loadtest")),
+				values.containsKey("max-p99") ? Duration.parse(values.get("max-p99")) : null,
+				Long.parseLong(values.getOrDefault("seed", "42")));
+	}
+
+}
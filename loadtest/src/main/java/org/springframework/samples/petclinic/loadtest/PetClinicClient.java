@@ -0,0 +1,162 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * HTTP client of a PetClinic instance that records the latency of every request in an HDR
+ * histogram of its endpoint. Endpoints are named after the mapping of the handler they
+ * reach, e.g. {@code GET /owners/{ownerId}}, so that the requests for different owners
+ * are recorded together. Redirects are not followed: a form that is processed answers
+ * with one, and counts as a success.
+ */
+class PetClinicClient {
+
+	private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+	private final HttpClient client = HttpClient.newBuilder()
+		.version(HttpClient.Version.HTTP_1_1)
+		.followRedirects(HttpClient.Redirect.NEVER)
+		.connectTimeout(Duration.ofSeconds(10))
+		.build();
+
+	private final URI baseUrl;
+
+	private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+	private volatile boolean recording;
+
+	PetClinicClient(URI baseUrl) {
+		this.baseUrl = baseUrl;
+	}
+
+	/**
+	 * Start or stop recording the requests, e.g. to leave out the warmup.
+	 */
+	void setRecording(boolean recording) {
+		this.recording = recording;
+	}
+
+	void get(String endpoint, String path) {
+		send(endpoint, HttpRequest.newBuilder(this.baseUrl.resolve(path)).GET().build());
+	}
+
+	void post(String endpoint, String path, Map<String, String> form) {
+		String body = form.entrySet()
+			.stream()
+			.map(field -> encode(field.getKey()) + "=" + encode(field.getValue()))
+			.collect(Collectors.joining("&"));
+		send(endpoint,
+				HttpRequest.newBuilder(this.baseUrl.resolve(path))
+					.header("Content-Type", "application/x-www-form-urlencoded")
+					.POST(HttpRequest.BodyPublishers.ofString(body))
+					.build());
+	}
+
+	/**
+	 * Send a request that is not part of the measured load, such as the seeding of data.
+	 * @return the body of the response
+	 * @throws IllegalStateException if the response is not successful
+	 */
+	InputStream send(HttpRequest.Builder request) throws IOException, InterruptedException {
+		HttpResponse<InputStream> response = this.client.send(request.build(),
+				HttpResponse.BodyHandlers.ofInputStream());
+		if (response.statusCode() >= 300) {
+			response.body().close();
+			throw new IllegalStateException(response.request().uri() + " answered " + response.statusCode());
+		}
+		return response.body();
+	}
+
+	URI resolve(String path) {
+		return this.baseUrl.resolve(path);
+	}
+
+	/**
+	 * Return the latencies and errors recorded since the last call, by endpoint.
+	 */
+	SortedMap<String, EndpointResult> results() {
+		SortedMap<String, EndpointResult> results = new TreeMap<>();
+		this.endpoints.forEach((name, endpoint) -> results.put(name,
+				new EndpointResult(endpoint.latencies.getIntervalHistogram(), endpoint.errors.sumThenReset())));
+		return results;
+	}
+
+	private void send(String name, HttpRequest request) {
+		Endpoint endpoint = this.endpoints.computeIfAbsent(name, key -> new Endpoint());
+		long start = System.nanoTime();
+		boolean success;
+		try {
+			success = this.client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+		}
+		catch (IOException ex) {
+			success = false;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		if (this.recording) {
+			endpoint.latencies
+				.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), HIGHEST_LATENCY));
+			if (!success) {
+				endpoint.errors.increment();
+			}
+		}
+	}
+
+	private static String encode(String value) {
+		return URLEncoder.encode(value, StandardCharsets.UTF_8);
+	}
+
+	private static final class Endpoint {
+
+		private final Recorder latencies = new Recorder(HIGHEST_LATENCY, 3);
+
+		private final LongAdder errors = new LongAdder();
+
+	}
+
+	/**
+	 * What was recorded for an endpoint.
+	 *
+	 * @param latencies the latencies of the requests, in microseconds
+	 * @param errors the number of requests that failed or answered with an error status
+	 */
+	record EndpointResult(Histogram latencies, long errors) {
+
+	}
+
+}
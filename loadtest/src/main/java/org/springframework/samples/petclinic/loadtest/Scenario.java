@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.springframework.samples.petclinic.loadtest.ClinicData.Owner;
+import org.springframework.samples.petclinic.loadtest.ClinicData.Pet;
+
+/**
+ * What a front-desk user does at a time, through the same requests as the browser. The
+ * endpoint names follow the mappings of {@code OwnerController}, {@code PetController},
+ * {@code VisitController} and {@code VetController}.
+ */
+enum Scenario {
+
+	/**
+	 * Look an owner up by the first letters of the last name.
+	 */
+	FIND_OWNER_BY_PREFIX(30) {
+		@Override
+		void run(PetClinicClient client, ClinicData data, Random random) {
+			String lastName = data.randomOwner(random).lastName();
+			String prefix = lastName.substring(0, Math.min(lastName.length(), 1 + random.nextInt(3)));
+			client.get("GET /owners", "/owners?lastName=" + prefix);
+		}
+	},
+
+	/**
+	 * Open the details of an owner, with its pets and visits.
+	 */
+	OWNER_DETAILS(30) {
+		@Override
+		void run(PetClinicClient client, ClinicData data, Random random) {
+			client.get("GET /owners/{ownerId}", "/owners/" + data.randomOwner(random).id());
+		}
+	},
+
+	/**
+	 * Open the new visit form of a pet and submit it.
+	 */
+	ADD_VISIT(15) {
+		@Override
+		void run(PetClinicClient client, ClinicData data, Random random) {
+			Pet pet = data.randomPet(random);
+			String path = "/owners/" + pet.ownerId() + "/pets/" + pet.id() + "/visits/new";
+			client.get("GET /owners/{ownerId}/pets/{petId}/visits/new", path);
+			client.post("POST /owners/{ownerId}/pets/{petId}/visits/new", path, Map.of("date",
+					LocalDate.now().toString(), "description", DESCRIPTIONS.get(random.nextInt(DESCRIPTIONS.size()))));
+		}
+	},
+
+	/**
+	 * Open the edit form of a pet and submit it unchanged.
+	 */
+	EDIT_PET(5) {
+		@Override
+		void run(PetClinicClient client, ClinicData data, Random random) {
+			Pet pet = data.randomPet(random);
+			String path = "/owners/" + pet.ownerId() + "/pets/" + pet.id() + "/edit";
+			client.get("GET /owners/{ownerId}/pets/{petId}/edit", path);
+			client.post("POST /owners/{ownerId}/pets/{petId}/edit", path, Map.of("id", String.valueOf(pet.id()), "name",
+					pet.name(), "birthDate", pet.birthDate(), "type", pet.type()));
+		}
+	},
+
+	/**
+	 * Show the list of veterinarians.
+	 */
+	LIST_VETS(20) {
+		@Override
+		void run(PetClinicClient client, ClinicData data, Random random) {
+			client.get("GET /vets.html", "/vets.html");
+		}
+	};
+
+	private static final List<String> DESCRIPTIONS = List.of("annual checkup", "vaccination", "limping",
+			"dental cleaning", "skin rash");
+
+	private static final int TOTAL_WEIGHT = List.of(values()).stream().mapToInt(scenario -> scenario.weight).sum();
+
+	private final int weight;
+
+	Scenario(int weight) {
+		this.weight = weight;
+	}
+
+	/**
+	 * Return the share of the scenarios that this one accounts for, in percent.
+	 */
+	int weight() {
+		return this.weight;
+	}
+
+	abstract void run(PetClinicClient client, ClinicData data, Random random);
+
+	/**
+	 * Pick a scenario according to the weights.
+	 */
+	static Scenario pick(Random random) {
+		int value = random.nextInt(TOTAL_WEIGHT);
+		for (Scenario scenario : values()) {
+			value -= scenario.weight;
+			if (value < 0) {
+				return scenario;
+			}
+		}
+		throw new IllegalStateException();
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds owners, pets and visits into the instance under test through its bulk import
+ * ({@code POST /owners/import}), so that it works against whatever database the instance
+ * runs on, the in-memory H2 database by default. Owners are posted in chunks, as CSV.
+ */
+class Seeder {
+
+	private static final int OWNERS_PER_REQUEST = 500;
+
+	private static final List<String> FIRST_NAMES = List.of("George", "Betty", "Eduardo", "Harold", "Peter", "Jean",
+			"Jeff", "Maria", "David", "Carlos", "Anna", "Tom", "Lucy", "Omar", "Yuki", "Priya", "Lars", "Ines");
+
+	private static final List<String> LAST_NAMES = List.of("Franklin", "Davis", "Rodriquez", "McTavish", "Coleman",
+			"Black", "Escobito", "Schroeder", "Estaban", "Anderson", "Baker", "Clark", "Dawson", "Evans", "Fisher",
+			"Garcia", "Hughes", "Jensen", "Keller", "Lopez", "Moreau", "Nakamura", "Olsen", "Patel", "Quinn", "Rossi",
+			"Sato", "Turner", "Urban", "Vargas", "Weber", "Young", "Zimmer");
+
+	private static final List<String> STREETS = List.of("W. Liberty St.", "Cardinal Ave.", "Commerce St.",
+			"Friendly St.", "S. Fair Way", "N. Lake St.", "Oak Blvd.", "Maple St.", "Blackhawk Trail");
+
+	private static final List<String> CITIES = List.of("Madison", "Sun Prairie", "McFarland", "Windsor", "Monona",
+			"Waunakee", "Middleton", "Verona");
+
+	private static final List<String> PET_NAMES = List.of("Leo", "Basil", "Rosy", "Jewel", "Iggy", "George", "Samantha",
+			"Max", "Lucky", "Mulligan", "Freddy", "Sly", "Bella", "Coco", "Milo", "Nala", "Oscar", "Pepper", "Rocky",
+			"Simba");
+
+	private static final List<String> PET_TYPES = List.of("cat", "dog", "lizard", "snake", "bird", "hamster");
+
+	private static final List<String> DESCRIPTIONS = List.of("rabies shot", "neutered", "spayed", "annual checkup",
+			"dental cleaning", "vaccination", "limping", "skin rash");
+
+	private final PetClinicClient client;
+
+	private final Random random;
+
+	Seeder(PetClinicClient client, Random random) {
+		this.client = client;
+		this.random = random;
+	}
+
+	/**
+	 * Seed owners with up to the given numbers of pets and visits each.
+	 * @return the number of imported owners
+	 */
+	int seed(int owners, int petsPerOwner, int visitsPerPet) throws IOException, InterruptedException {
+		int imported = 0;
+		for (int from = 0; from < owners; from += OWNERS_PER_REQUEST) {
+			String csv = csv(Math.min(OWNERS_PER_REQUEST, owners - from), petsPerOwner, visitsPerPet);
+			HttpRequest.Builder request = HttpRequest.newBuilder(this.client.resolve("/owners/import"))
+				.header("Content-Type", "text/csv")
+				.POST(HttpRequest.BodyPublishers.ofString(csv));
+			try (InputStream response = this.client.send(request)) {
+				String result = new String(response.readAllBytes(), StandardCharsets.UTF_8);
+				imported += Integer.parseInt(result.replaceAll("(?s).*\"owners\"\\s*:\\s*(\\d+).*", "$1"));
+			}
+		}
+		return imported;
+	}
+
+	/**
+	 * Generate owners as CSV, with a number of pets per owner and of visits per pet drawn
+	 * uniformly between 0 and the given maximum.
+	 */
+	String csv(int owners, int petsPerOwner, int visitsPerPet) {
+		StringBuilder csv = new StringBuilder(
+				"firstName,lastName,address,city,telephone,petName,petBirthDate,petType,visitDate,visitDescription\n");
+		LocalDate today = LocalDate.now();
+		for (int i = 0; i < owners; i++) {
+			String owner = String.join(",", pick(FIRST_NAMES), pick(LAST_NAMES),
+					(100 + this.random.nextInt(9900)) + " " + pick(STREETS), pick(CITIES),
+					"608" + (1000000 + this.random.nextInt(9000000)));
+			List<String> names = new ArrayList<>(PET_NAMES);
+			Collections.shuffle(names, this.random);
+			int pets = this.random.nextInt(petsPerOwner + 1);
+			if (pets == 0) {
+				csv.append(owner).append(",,,,,\n");
+			}
+			for (int p = 0; p < pets; p++) {
+				String pet = String.join(",", names.get(p % names.size()),
+						today.minusDays(30 + this.random.nextInt(15 * 365)).toString(), pick(PET_TYPES));
+				int visits = this.random.nextInt(visitsPerPet + 1);
+				if (visits == 0) {
+					csv.append(owner).append(',').append(pet).append(",,\n");
+				}
+				for (int v = 0; v < visits; v++) {
+					csv.append(owner).append(',').append(pet).append(',');
+					csv.append(today.minusDays(this.random.nextInt(3 * 365))).append(',');
+					csv.append(pick(DESCRIPTIONS)).append('\n');
+				}
+			}
+		}
+		return csv.toString();
+	}
+
+	private String pick(List<String> values) {
+		return values.get(this.random.nextInt(values.size()));
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ClinicData}.
+ */
+class ClinicDataTests {
+
+	private static final String HEADER = "ownerId,firstName,lastName,address,city,telephone,petId,petName,"
+			+ "petBirthDate,petType,visitId,visitDate,visitDescription\n";
+
+	@Test
+	void readsOwnersAndPetsOfExport() throws IOException {
+		String csv = HEADER + "1,George,Franklin,110 W. Liberty St.,Madison,6085551023,1,Leo,2010-09-07,cat,,,\n"
+				+ "2,Betty,Davis,\"638 Cardinal Ave., Apt 2\",Sun Prairie,6085551749,2,Basil,2012-08-06,hamster,1,"
+				+ "2013-01-01,\"rabies\nshot\"\n"
+				+ "2,Betty,Davis,\"638 Cardinal Ave., Apt 2\",Sun Prairie,6085551749,2,Basil,2012-08-06,hamster,2,"
+				+ "2013-01-02,\"said \"\"hello\"\"\"\n"
+				+ "3,Eduardo,Rodriquez,2693 Commerce St.,McFarland,6085558763,,,,,,,\n";
+
+		ClinicData data = ClinicData.read(new StringReader(csv));
+
+		assertThat(data.owners()).containsExactly(new ClinicData.Owner(1, "Franklin"), new ClinicData.Owner(2, "Davis"),
+				new ClinicData.Owner(3, "Rodriquez"));
+		assertThat(data.pets()).containsExactly(new ClinicData.Pet(1, 1, "Leo", "2010-09-07", "cat"),
+				new ClinicData.Pet(2, 2, "Basil", "2012-08-06", "hamster"));
+	}
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link LoadTestOptions}.
+ */
+class LoadTestOptionsTests {
+
+	@Test
+	void parsesOptionsOverDefaults() {
+		LoadTestOptions options = LoadTestOptions.parse("--base-url=http://localhost:9090", "--users=8",
+				"--duration=PT2M", "--max-p99=PT0.25S");
+
+		assertThat(options.baseUrl()).isEqualTo(URI.create("http://localhost:9090"));
+		assertThat(options.users()).isEqualTo(8);
+		assertThat(options.duration()).isEqualTo(Duration.ofMinutes(2));
+		assertThat(options.maxP99()).isEqualTo(Duration.ofMillis(250));
+		assertThat(options.warmup()).isEqualTo(Duration.ofSeconds(10));
+		assertThat(options.owners()).isEqualTo(1000);
+	}
+
+	@Test
+	void rejectsUnknownOptions() {
+		assertThatIllegalArgumentException().isThrownBy(() -> LoadTestOptions.parse("--user=8"))
+			.withMessageContaining("--user");
+	}
+
+	@Test
+	void endpointsAreWrittenToDistinctFiles() {
+		assertThat(LoadTest.slug("GET /owners/{ownerId}")).isEqualTo("get-owners-ownerid.hgrm");
+		assertThat(LoadTest.slug("POST /owners/{ownerId}/pets/{petId}/edit"))
+			.isEqualTo("post-owners-ownerid-pets-petid-edit.hgrm");
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.reactive;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads the vets, specialties, pet types and owners of the PetClinic tables through
+ * R2DBC. Each method issues a single statement; rows are emitted as the subscriber
+ * requests them.
+ */
+@Component
+public class ClinicReader {
+
+	private final DatabaseClient client;
+
+	public ClinicReader(DatabaseClient client) {
+		this.client = client;
+	}
+
+	/**
+	 * Retrieve all the vets with their specialties, ordered by id. The vets are built one
+	 * at a time from consecutive rows, so only the rows of the current vet are held in
+	 * memory.
+	 * @return the vets
+	 */
+	public Flux<Vet> findVets() {
+		return this.client.sql("""
+				SELECT vets.id AS vet_id, vets.first_name, vets.last_name,
+					specialties.id AS specialty_id, specialties.name AS specialty_name
+				FROM vets
+					LEFT JOIN vet_specialties ON vet_specialties.vet_id = vets.id
+					LEFT JOIN specialties ON specialties.id = vet_specialties.specialty_id
+				ORDER BY vets.id, specialties.name
+				""").map(VetRow::of).all().bufferUntilChanged(VetRow::vetId).map(ClinicReader::toVet);
+	}
+
+	/**
+	 * Retrieve all the specialties, ordered by name.
+	 * @return the specialties
+	 */
+	public Flux<Specialty> findSpecialties() {
+		return this.client.sql("SELECT id, name FROM specialties ORDER BY name")
+			.map(row -> new Specialty(row.get("id", Integer.class), row.get("name", String.class)))
+			.all();
+	}
+
+	/**
+	 * Retrieve all the pet types, ordered by name.
+	 * @return the pet types
+	 */
+	public Flux<PetType> findPetTypes() {
+		return this.client.sql("SELECT id, name FROM types ORDER BY name")
+			.map(row -> new PetType(row.get("id", Integer.class), row.get("name", String.class)))
+			.all();
+	}
+
+	/**
+	 * Retrieve an owner by id, with its pets and their types.
+	 * @param id the id of the owner
+	 * @return the owner, or an empty {@link Mono} if there is none with that id
+	 */
+	public Mono<Owner> findOwnerById(int id) {
+		return this.client.sql("""
+				SELECT owners.id AS owner_id, owners.first_name, owners.last_name, owners.address, owners.city,
+					owners.telephone, pets.id AS pet_id, pets.name AS pet_name, pets.birth_date,
+					types.id AS type_id, types.name AS type_name
+				FROM owners
+					LEFT JOIN pets ON pets.owner_id = owners.id
+					LEFT JOIN types ON types.id = pets.type_id
+				WHERE owners.id = :id
+				ORDER BY pets.name
+				""").bind("id", id).map(OwnerRow::of).all().collectList().mapNotNull(ClinicReader::toOwner);
+	}
+
+	private static Vet toVet(List<VetRow> rows) {
+		List<Specialty> specialties = new ArrayList<>(rows.size());
+		for (VetRow row : rows) {
+			if (row.specialty() != null) {
+				specialties.add(row.specialty());
+			}
+		}
+		VetRow first = rows.get(0);
+		return new Vet(first.vetId(), first.firstName(), first.lastName(), specialties);
+	}
+
+	private static Owner toOwner(List<OwnerRow> rows) {
+		if (rows.isEmpty()) {
+			return null;
+		}
+		List<Pet> pets = new ArrayList<>(rows.size());
+		for (OwnerRow row : rows) {
+			if (row.pet() != null) {
+				pets.add(row.pet());
+			}
+		}
+		Owner owner = rows.get(0).owner();
+		return new Owner(owner.id(), owner.firstName(), owner.lastName(), owner.address(), owner.city(),
+				owner.telephone(), pets);
+	}
+
+	private record VetRow(Integer vetId, String firstName, String lastName, Specialty specialty) {
+
+		static VetRow of(Readable row) {
+			Specialty specialty = null;
+			Integer specialtyId = row.get("specialty_id", Integer.class);
+			if (specialtyId != null) {
+				specialty = new Specialty(specialtyId, row.get("specialty_name", String.class));
+			}
+			return new VetRow(row.get("vet_id", Integer.class), row.get("first_name", String.class),
+					row.get("last_name", String.class), specialty);
+		}
+
+	}
+
+	/**
+	 * The owner columns of a row, without pets, and the pet of the row, if any.
+	 */
+	private record OwnerRow(Owner owner, Pet pet) {
+
+		static OwnerRow of(Readable row) {
+			Owner owner = new Owner(row.get("owner_id", Integer.class), row.get("first_name", String.class),
+					row.get("last_name", String.class), row.get("address", String.class), row.get("city", String.class),
+					row.get("telephone", String.class), List.of());
+			Pet pet = null;
+			Integer petId = row.get("pet_id", Integer.class);
+			if (petId != null) {
+				PetType type = new PetType(row.get("type_id", Integer.class), row.get("type_name", String.class));
+				pet = new Pet(petId, row.get("pet_name", String.class), row.get("birth_date", LocalDate.class), type);
+			}
+			return new OwnerRow(owner, pet);
+		}
+
+	}
+
+}
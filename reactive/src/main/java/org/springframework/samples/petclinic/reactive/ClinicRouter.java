@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.reactive;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.accept;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes of the reactive read API:
+ * <ul>
+ * <li>{@code GET /vets}: all the vets with their specialties, as a JSON array, or
+ * streamed one per line when {@code application/x-ndjson} is accepted; each line is
+ * written as soon as its rows are read, and the rows are only read as fast as the client
+ * consumes the lines</li>
+ * <li>{@code GET /specialties} and {@code GET /pettypes}: JSON arrays</li>
+ * <li>{@code GET /owners/{ownerId}}: an owner with its pets, or {@code 404}</li>
+ * </ul>
+ */
+@Configuration(proxyBeanMethods = false)
+class ClinicRouter {
+
+	@Bean
+	RouterFunction<ServerResponse> clinicRoutes(ClinicReader reader) {
+		return RouterFunctions.route()
+			.GET("/vets", accept(MediaType.APPLICATION_NDJSON),
+					request -> ServerResponse.ok()
+						.contentType(MediaType.APPLICATION_NDJSON)
+						.body(reader.findVets(), Vet.class))
+			.GET("/vets", request -> json().body(reader.findVets(), Vet.class))
+			.GET("/specialties", request -> json().body(reader.findSpecialties(), Specialty.class))
+			.GET("/pettypes", request -> json().body(reader.findPetTypes(), PetType.class))
+			.GET("/owners/{ownerId}", request -> showOwner(reader, request))
+			.build();
+	}
+
+	private static Mono<ServerResponse> showOwner(ClinicReader reader, ServerRequest request) {
+		int ownerId;
+		try {
+			ownerId = Integer.parseInt(request.pathVariable("ownerId"));
+		}
+		catch (NumberFormatException ex) {
+			return ServerResponse.badRequest().build();
+		}
+		return reader.findOwnerById(ownerId)
+			.flatMap(owner -> json().bodyValue(owner))
+			.switchIfEmpty(ServerResponse.notFound().build());
+	}
+
+	private static ServerResponse.BodyBuilder json() {
+		return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON);
+	}
+
+}
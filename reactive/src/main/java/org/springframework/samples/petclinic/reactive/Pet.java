@@ -0,0 +1,29 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.reactive;
+
+import java.time.LocalDate;
+
+/**
+ * A pet of an {@link Owner}, as read from the {@code pets} table.
+ *
+ * @param id the id of the pet
+ * @param name the name of the pet
+ * @param birthDate the birth date of the pet
+ * @param type the type of the pet
+ */
+public record Pet(Integer id, String name, LocalDate birthDate, PetType type) {
+}
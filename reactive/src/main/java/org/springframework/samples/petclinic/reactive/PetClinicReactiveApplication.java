@@ -0,0 +1,40 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Non-blocking, read-only API over the PetClinic database, run next to the PetClinic
+ * application (on port 8081 by default).
+ * <p>
+ * It reads the same tables through R2DBC ({@code spring.r2dbc.*}). On H2 it initializes
+ * its own in-memory database with the scripts of the PetClinic application; with the
+ * {@code postgres} profile it reads the database that the PetClinic application
+ * initializes.
+ * </p>
+ *
+ * @see ClinicRouter
+ */
+@SpringBootApplication
+public class PetClinicReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(PetClinicReactiveApplication.class, args);
+	}
+
+}
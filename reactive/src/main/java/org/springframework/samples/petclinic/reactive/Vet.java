@@ -0,0 +1,30 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.reactive;
+
+import java.util.List;
+
+/**
+ * A vet with its specialties, ordered by name, as read from the {@code vets} and
+ * {@code vet_specialties} tables.
+ *
+ * @param id the id of the vet
+ * @param firstName the first name of the vet
+ * @param lastName the last name of the vet
+ * @param specialties the specialties of the vet, possibly empty
+ */
+public record Vet(Integer id, String firstName, String lastName, List<Specialty> specialties) {
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+/**
+ * Integration test of the reactive read API, against its own embedded database.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+class ClinicRouterIntegrationTests {
+
+	@Autowired
+	private WebTestClient client;
+
+	@Test
+	void shouldListVetsWithTheirSpecialties() {
+		client.get()
+			.uri("/vets")
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody()
+			.jsonPath("$.length()")
+			.isEqualTo(6)
+			.jsonPath("$[0].lastName")
+			.isEqualTo("Carter")
+			.jsonPath("$[0].specialties.length()")
+			.isEqualTo(0)
+			.jsonPath("$[2].lastName")
+			.isEqualTo("Douglas")
+			.jsonPath("$[2].specialties[*].name")
+			.isEqualTo(List.of("dentistry", "surgery"));
+	}
+
+	@Test
+	void shouldStreamVetsAsNdjson() {
+		Flux<Vet> vets = client.get()
+			.uri("/vets")
+			.accept(MediaType.APPLICATION_NDJSON)
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectHeader()
+			.contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+			.returnResult(Vet.class)
+			.getResponseBody();
+
+		StepVerifier.create(vets, 2)
+			.assertNext(vet -> assertThat(vet.lastName()).isEqualTo("Carter"))
+			.assertNext(vet -> assertThat(vet.lastName()).isEqualTo("Leary"))
+			.thenRequest(10)
+			.expectNextCount(4)
+			.verifyComplete();
+	}
+
+	@Test
+	void shouldListSpecialtiesAndPetTypes() {
+		client.get()
+			.uri("/specialties")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody()
+			.jsonPath("$[*].name")
+			.isEqualTo(List.of("dentistry", "radiology", "surgery"));
+		client.get()
+			.uri("/pettypes")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody()
+			.jsonPath("$[*].name")
+			.isEqualTo(List.of("bird", "cat", "dog", "hamster", "lizard", "snake"));
+	}
+
+	@Test
+	void shouldShowOwnerWithPets() {
+		client.get()
+			.uri("/owners/{ownerId}", 6)
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody()
+			.jsonPath("$.lastName")
+			.isEqualTo("Coleman")
+			.jsonPath("$.pets[*].name")
+			.isEqualTo(List.of("Max", "Samantha"))
+			.jsonPath("$.pets[0].type.name")
+			.isEqualTo("cat");
+	}
+
+	@Test
+	void shouldNotFindUnknownOwner() {
+		client.get().uri("/owners/{ownerId}", 999).exchange().expectStatus().isNotFound();
+		client.get().uri("/owners/{ownerId}", "abc").exchange().expectStatus().isBadRequest();
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the lookups of a pet among the pets of an {@link Owner}, looking for the
+ * last pet so that a scan goes through all of them. The {@code scan...} benchmarks are
+ * the linear scans used below {@link Owner#PET_INDEX_THRESHOLD}, run for every size to
+ * show where the index starts to pay off; {@code firstLookup} includes building the
+ * index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OwnerBenchmark {
+
+	@Param({ "1", "8", "16", "32", "100", "1000" })
+	private int pets;
+
+	private Owner owner;
+
+	private String lastName;
+
+	private Integer lastId;
+
+	@Setup
+	public void setup() {
+		this.owner = new Owner();
+		for (int i = 0; i < this.pets; i++) {
+			Pet pet = new Pet();
+			pet.setName("Pet " + i);
+			this.owner.addPet(pet);
+			pet.setId(i + 1);
+		}
+		this.lastName = "pet " + (this.pets - 1);
+		this.lastId = this.pets;
+	}
+
+	@Benchmark
+	public Pet getPetByName() {
+		return this.owner.getPet(this.lastName, false);
+	}
+
+	@Benchmark
+	public Pet getPetById() {
+		return this.owner.getPet(this.lastId);
+	}
+
+	@Benchmark
+	public Pet firstLookup() {
+		this.owner.invalidatePetIndex();
+		return this.owner.getPet(this.lastId);
+	}
+
+	@Benchmark
+	public Pet scanByName() {
+		for (Pet pet : this.owner.getPets()) {
+			if (pet.getName().equalsIgnoreCase(this.lastName)) {
+				return pet;
+			}
+		}
+		return null;
+	}
+
+	@Benchmark
+	public Pet scanById() {
+		for (Pet pet : this.owner.getPets()) {
+			if (!pet.isNew() && pet.getId().equals(this.lastId)) {
+				return pet;
+			}
+		}
+		return null;
+	}
+
+}
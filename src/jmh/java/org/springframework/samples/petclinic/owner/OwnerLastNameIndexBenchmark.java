@@ -0,0 +1,135 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Benchmark of a page of the find owners form, answered by the {@link OwnerLastNameIndex}
+ * or by the {@code LIKE} and {@code COUNT} queries it replaces, run against an in-memory
+ * H2 database holding the same owners.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OwnerLastNameIndexBenchmark {
+
+	private static final String[] LAST_NAMES = { "Black", "Coleman", "Davis", "Escobito", "Estaban", "Franklin",
+			"McTavish", "Rodriquez", "Schroeder", "Wilson" };
+
+	@Param({ "1000", "100000" })
+	private int owners;
+
+	@Param({ "Da", "Wilson1" })
+	private String prefix;
+
+	private final PageRequest page = PageRequest.of(0, 5);
+
+	private OwnerLastNameIndex index;
+
+	private Connection connection;
+
+	private PreparedStatement pageQuery;
+
+	private PreparedStatement countQuery;
+
+	@Setup(Level.Trial)
+	public void setup() throws SQLException {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:benchmark");
+		this.connection = dataSource.getConnection();
+		try (Statement statement = this.connection.createStatement()) {
+			statement.execute("CREATE TABLE owners (id INTEGER PRIMARY KEY, last_name VARCHAR(30))");
+			statement.execute("CREATE INDEX owners_last_name ON owners (last_name)");
+		}
+		Random random = new Random(42);
+		List<Object[]> idsAndLastNames = new ArrayList<>(this.owners);
+		try (PreparedStatement insert = this.connection.prepareStatement("INSERT INTO owners VALUES (?, ?)")) {
+			for (int id = 1; id <= this.owners; id++) {
+				String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + random.nextInt(this.owners);
+				idsAndLastNames.add(new Object[] { id, lastName });
+				insert.setInt(1, id);
+				insert.setString(2, lastName);
+				insert.addBatch();
+			}
+			insert.executeBatch();
+		}
+		this.index = new OwnerLastNameIndex(null, "h2");
+		this.index.rebuild(idsAndLastNames);
+		this.pageQuery = this.connection.prepareStatement(
+				"SELECT id FROM owners WHERE last_name LIKE ? ORDER BY last_name, id OFFSET 0 ROWS FETCH FIRST 5 ROWS ONLY");
+		this.countQuery = this.connection.prepareStatement("SELECT COUNT(*) FROM owners WHERE last_name LIKE ?");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		try (Statement statement = this.connection.createStatement()) {
+			statement.execute("DROP TABLE owners");
+		}
+		this.connection.close();
+	}
+
+	@Benchmark
+	public Page<Integer> index() {
+		return this.index.findIds(this.prefix, this.page);
+	}
+
+	@Benchmark
+	public long sql() throws SQLException {
+		long result = 0;
+		this.pageQuery.setString(1, this.prefix + "%");
+		try (ResultSet ids = this.pageQuery.executeQuery()) {
+			while (ids.next()) {
+				result += ids.getInt(1);
+			}
+		}
+		this.countQuery.setString(1, this.prefix + "%");
+		try (ResultSet count = this.countQuery.executeQuery()) {
+			count.next();
+			result += count.getLong(1);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of {@link PetTypeFormatter#parse}, as run for each option of the pet type
+ * select and for each pet form submission, with the {@link PetTypeCache} loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PetTypeFormatterBenchmark {
+
+	private PetTypeFormatter formatter;
+
+	@Setup
+	public void setup() {
+		List<PetType> types = List.of(petType(1, "bird"), petType(2, "cat"), petType(3, "dog"),
+				petType(4, "hamster"), petType(5, "lizard"), petType(6, "snake"));
+		PetTypeRepository repository = new PetTypeRepository() {
+
+			@Override
+			public List<PetType> findPetTypes() {
+				return types;
+			}
+
+			@Override
+			public PetType save(PetType petType) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public void delete(PetType petType) {
+				throw new UnsupportedOperationException();
+			}
+
+		};
+		this.formatter = new PetTypeFormatter(new PetTypeCache(repository));
+	}
+
+	@Benchmark
+	public PetType parse() throws ParseException {
+		return this.formatter.parse("snake", Locale.ENGLISH);
+	}
+
+	private static PetType petType(int id, String name) {
+		PetType petType = new PetType();
+		petType.setId(id);
+		petType.setName(name);
+		return petType;
+	}
+
+}
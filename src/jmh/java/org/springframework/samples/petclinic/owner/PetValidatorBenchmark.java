@@ -0,0 +1,78 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+/**
+ * Benchmark of {@link PetValidator#validate} on a valid pet and on a pet missing all its
+ * required fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PetValidatorBenchmark {
+
+	private final PetValidator validator = new PetValidator();
+
+	private Pet validPet;
+
+	private Pet invalidPet;
+
+	@Setup
+	public void setup() {
+		PetType cat = new PetType();
+		cat.setId(1);
+		cat.setName("cat");
+		this.validPet = new Pet();
+		this.validPet.setName("Leo");
+		this.validPet.setType(cat);
+		this.validPet.setBirthDate(LocalDate.of(2020, 9, 7));
+		this.invalidPet = new Pet();
+	}
+
+	@Benchmark
+	public Errors validateValidPet() {
+		Errors errors = new BeanPropertyBindingResult(this.validPet, "pet");
+		this.validator.validate(this.validPet, errors);
+		return errors;
+	}
+
+	@Benchmark
+	public Errors validateInvalidPet() {
+		Errors errors = new BeanPropertyBindingResult(this.invalidPet, "pet");
+		this.validator.validate(this.invalidPet, errors);
+		return errors;
+	}
+
+}
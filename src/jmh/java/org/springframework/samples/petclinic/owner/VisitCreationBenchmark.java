@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Benchmark of the booking of a visit for a pet that already has a growing number of
+ * visits: the direct insert of {@link VisitRepository#insertVisit} against the former
+ * load of the whole owner graph followed by a save of the owner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class VisitCreationBenchmark {
+
+	private static final int OWNER_ID = 1;
+
+	private static final int PET_ID = 1;
+
+	@Param({ "10", "1000" })
+	private int visits;
+
+	private ConfigurableApplicationContext context;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private OwnerRepository owners;
+
+	private VisitRepository visitRepository;
+
+	private TransactionTemplate transactionTemplate;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.context = new SpringApplicationBuilder(PetClinicApplication.class).web(WebApplicationType.NONE)
+			.registerShutdownHook(false)
+			.properties("spring.main.banner-mode=off", "spring.docker.compose.enabled=false", "logging.level.root=WARN")
+			.run();
+		this.jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+		this.owners = this.context.getBean(OwnerRepository.class);
+		this.visitRepository = this.context.getBean(VisitRepository.class);
+		this.transactionTemplate = new TransactionTemplate(this.context.getBean(PlatformTransactionManager.class));
+		this.jdbcTemplate.batchUpdate("INSERT INTO visits (pet_id, visit_date, description) VALUES (?, ?, ?)",
+				Collections.nCopies(this.visits, new Object[] { PET_ID, LocalDate.of(2020, 1, 1), "seed" }));
+	}
+
+	@TearDown(Level.Iteration)
+	public void deleteBookedVisits() {
+		this.jdbcTemplate.update("DELETE FROM visits WHERE description = 'benchmark'");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public int insertVisit() {
+		return this.visitRepository.insertVisit(OWNER_ID, PET_ID, LocalDate.now(), "benchmark");
+	}
+
+	@Benchmark
+	public Owner saveOwner() {
+		return this.transactionTemplate.execute((status) -> {
+			Owner owner = this.owners.findWithPetsById(OWNER_ID).orElseThrow();
+			Visit visit = new Visit();
+			visit.setDescription("benchmark");
+			owner.addVisit(PET_ID, visit);
+			return this.owners.save(owner);
+		});
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.PetType;
+import org.springframework.samples.petclinic.owner.VisitHistory;
+import org.springframework.samples.petclinic.owner.VisitSummary;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.web.servlet.IServletWebExchange;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+/**
+ * Benchmark of the Thymeleaf rendering of the {@code owners/ownerDetails} page, with the
+ * same template engine setup as the application (Spring dialect, cached templates,
+ * message bundle), for an owner with a growing number of pets with their 3 most recent
+ * visits each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OwnerDetailsRenderingBenchmark {
+
+	@Param({ "1", "10" })
+	private int pets;
+
+	private SpringTemplateEngine templateEngine;
+
+	private WebContext context;
+
+	@Setup
+	public void setup() {
+		ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+		templateResolver.setPrefix("templates/");
+		templateResolver.setSuffix(".html");
+		templateResolver.setTemplateMode(TemplateMode.HTML);
+		templateResolver.setCharacterEncoding("UTF-8");
+		ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+		messageSource.setBasename("messages/messages");
+		this.templateEngine = new SpringTemplateEngine();
+		this.templateEngine.setTemplateResolver(templateResolver);
+		this.templateEngine.setTemplateEngineMessageSource(messageSource);
+
+		MockServletContext servletContext = new MockServletContext();
+		IServletWebExchange exchange = JakartaServletWebApplication.buildApplication(servletContext)
+			.buildExchange(new MockHttpServletRequest(servletContext, "GET", "/owners/1"),
+					new MockHttpServletResponse());
+		this.context = new WebContext(exchange, Locale.ENGLISH);
+		Owner owner = owner();
+		this.context.setVariable("owner", owner);
+		this.context.setVariable("visits", VisitHistory.byPet(visits(owner), 3));
+	}
+
+	@Benchmark
+	public String render() {
+		StringWriter writer = new StringWriter(16384);
+		this.templateEngine.process("owners/ownerDetails", this.context, writer);
+		return writer.toString();
+	}
+
+	private Owner owner() {
+		Owner owner = new Owner();
+		owner.setId(1);
+		owner.setFirstName("George");
+		owner.setLastName("Franklin");
+		owner.setAddress("110 W. Liberty St.");
+		owner.setCity("Madison");
+		owner.setTelephone("6085551023");
+		PetType cat = new PetType();
+		cat.setId(1);
+		cat.setName("cat");
+		for (int i = 0; i < this.pets; i++) {
+			Pet pet = new Pet();
+			pet.setName("Leo " + i);
+			pet.setBirthDate(LocalDate.of(2020, 9, 7));
+			pet.setType(cat);
+			owner.addPet(pet);
+			pet.setId(i + 1);
+		}
+		return owner;
+	}
+
+	private List<VisitSummary> visits(Owner owner) {
+		List<VisitSummary> visits = new ArrayList<>();
+		for (Pet pet : owner.getPets()) {
+			for (int i = 0; i < 3; i++) {
+				visits.add(new VisitSummary(pet.getId(), visits.size() + 1, LocalDate.of(2024, 1, 3 - i), "rabies shot"));
+			}
+		}
+		return visits;
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.samples.petclinic.PetClinicApplication;
+
+/**
+ * Load test of the application served by Tomcat's pool of platform threads against one
+ * virtual thread per request ({@code spring.threads.virtual.enabled}), with 2,000
+ * concurrent users by default (override with {@code -t}). Each user requests pages that
+ * block on JDBC; the throughput mode gives the requests per second, and the sample time
+ * mode the latency percentiles, p0.99 included. The {@code virtual} mode requires a Java
+ * 21 runtime, e.g. a build with the {@code java21} profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(2000)
+@Fork(1)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+public class RequestThreadingBenchmark {
+
+	private static final int OWNERS = 10;
+
+	@Param({ "platform", "virtual" })
+	private String threads;
+
+	private ConfigurableApplicationContext context;
+
+	private HttpClient client;
+
+	private String baseUrl;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		boolean virtual = "virtual".equals(this.threads);
+		if (virtual && Runtime.version().feature() < 21) {
+			throw new IllegalStateException("Virtual threads require Java 21, this is " + Runtime.version());
+		}
+		this.context = new SpringApplicationBuilder(PetClinicApplication.class).registerShutdownHook(false)
+			.properties("spring.main.banner-mode=off", "spring.docker.compose.enabled=false", "logging.level.root=WARN",
+					"server.port=0", "spring.threads.virtual.enabled=" + virtual)
+			.run();
+		int port = ((WebServerApplicationContext) this.context).getWebServer().getPort();
+		this.baseUrl = "http://localhost:" + port;
+		this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public int ownerDetails() throws IOException, InterruptedException {
+		return get("/owners/" + ThreadLocalRandom.current().nextInt(1, OWNERS + 1));
+	}
+
+	@Benchmark
+	public int findOwners() throws IOException, InterruptedException {
+		return get("/owners?lastName=" + (ThreadLocalRandom.current().nextBoolean() ? "Davis" : ""));
+	}
+
+	private int get(String path) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(this.baseUrl + path)).GET().build();
+		HttpResponse<Void> response = this.client.send(request, HttpResponse.BodyHandlers.discarding());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException(path + " answered " + response.statusCode());
+		}
+		return response.statusCode();
+	}
+
+}
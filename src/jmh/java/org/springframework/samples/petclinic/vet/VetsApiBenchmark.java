@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.samples.petclinic.PetClinicApplication;
+
+/**
+ * Benchmark of {@code GET /vets} as JSON, served by the blocking
+ * {@link VetController#showResourcesVetList()} (bytes serialized once and cached) against
+ * the reactive read API of the {@code reactive} module (vets read through R2DBC and
+ * encoded on every request). The blocking application is started by the benchmark; the
+ * reactive one must be running at {@code reactiveUrl} (e.g. {@code ./mvnw -f reactive
+ * spring-boot:run}). 64 concurrent clients by default (override with {@code -t}); the
+ * sample time mode reports the latency percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(64)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class VetsApiBenchmark {
+
+	@Param({ "blocking", "reactive" })
+	private String api;
+
+	@Param("http://localhost:8081")
+	private String reactiveUrl;
+
+	private ConfigurableApplicationContext context;
+
+	private HttpClient client;
+
+	private HttpRequest request;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		String baseUrl = this.reactiveUrl;
+		if (!"reactive".equals(this.api)) {
+			this.context = new SpringApplicationBuilder(PetClinicApplication.class).registerShutdownHook(false)
+				.properties("spring.main.banner-mode=off", "spring.docker.compose.enabled=false",
+						"logging.level.root=WARN", "server.port=0")
+				.run();
+			baseUrl = "http://localhost:" + ((WebServerApplicationContext) this.context).getWebServer().getPort();
+		}
+		this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		this.request = HttpRequest.newBuilder(URI.create(baseUrl + "/vets"))
+			.header("Accept", "application/json")
+			.GET()
+			.build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+	@Benchmark
+	public int vets() throws IOException, InterruptedException {
+		HttpResponse<byte[]> response = this.client.send(this.request, HttpResponse.BodyHandlers.ofByteArray());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException("/vets answered " + response.statusCode());
+		}
+		return response.body().length;
+	}
+
+}
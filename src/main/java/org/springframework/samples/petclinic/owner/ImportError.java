@@ -0,0 +1,29 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+/**
+ * A row of an import file that was not imported, and why.
+ *
+ * @param position where the row was found in the file: its line for CSV, the index of its
+ * owner for JSON
+ * @param field the rejected field, or the rejected entity ({@code owner}, {@code pet} or
+ * {@code visit}) as a whole
+ * @param message the reason of the rejection
+ */
+public record ImportError(int position, String field, String message) {
+
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+/**
+ * Outcome of an import.
+ *
+ * @param owners the number of imported owners
+ * @param pets the number of imported pets
+ * @param visits the number of imported visits
+ * @param errors the number of rejected rows or fields
+ * @param reportId the id of the report of the {@link ImportError errors}, or {@code null}
+ * if there are none
+ */
+public record ImportResult(int owners, int pets, int visits, int errors, String reportId) {
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.util.List;
+
+/**
+ * An owner read from an import file, with its pets and their visits, before any
+ * validation: every value is kept as the text found in the file.
+ *
+ * @param position where the owner was found in the file: its first line for CSV, its
+ * index in the array for JSON
+ * @param firstName the first name of the owner
+ * @param lastName the last name of the owner
+ * @param address the address of the owner
+ * @param city the city of the owner
+ * @param telephone the telephone of the owner
+ * @param pets the pets of the owner
+ */
+public record ImportedOwner(int position, String firstName, String lastName, String address, String city,
+		String telephone, List<ImportedPet> pets) {
+
+	public ImportedOwner {
+		pets = (pets != null) ? pets : List.of();
+	}
+
+	ImportedOwner at(int position) {
+		return new ImportedOwner(position, this.firstName, this.lastName, this.address, this.city, this.telephone,
+				this.pets.stream().map(pet -> pet.at(position)).toList());
+	}
+
+	/**
+	 * A pet read from an import file.
+	 *
+	 * @param position where the pet was found in the file
+	 * @param name the name of the pet
+	 * @param birthDate the birth date of the pet, as {@code yyyy-MM-dd}
+	 * @param type the name of the type of the pet
+	 * @param visits the visits of the pet
+	 */
+	public record ImportedPet(int position, String name, String birthDate, String type, List<ImportedVisit> visits) {
+
+		public ImportedPet {
+			visits = (visits != null) ? visits : List.of();
+		}
+
+		ImportedPet at(int position) {
+			return new ImportedPet(position, this.name, this.birthDate, this.type,
+					this.visits.stream()
+						.map(visit -> new ImportedVisit(position, visit.date(), visit.description()))
+						.toList());
+		}
+
+	}
+
+	/**
+	 * A visit read from an import file.
+	 *
+	 * @param position where the visit was found in the file
+	 * @param date the date of the visit, as {@code yyyy-MM-dd}, or {@code null} for today
+	 * @param description the description of the visit
+	 */
+	public record ImportedVisit(int position, String date, String description) {
+
+	}
+
+}
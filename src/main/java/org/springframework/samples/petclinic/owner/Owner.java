@@ -16,7 +16,10 @@
 package org.springframework.samples.petclinic.owner;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import org.springframework.core.style.ToStringCreator;
 import org.springframework.samples.petclinic.model.Person;
@@ -25,6 +28,7 @@ import org.springframework.util.Assert;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
@@ -35,6 +39,12 @@ import jakarta.validation.constraints.NotBlank;
 
 /**
  * Simple JavaBean domain object representing an owner.
+ * <p>
+ * Owners with many pets (breeders, shelters) get their pets indexed by id and by case
+ * folded name the first time one is looked up, so that the {@code getPet} methods do not
+ * scan the whole list. The index is dropped whenever a pet is added or a pet's id or name
+ * changes, and rebuilt on the next lookup.
+ * </p>
  *
  * @author Ken Krebs
  * @author Juergen Hoeller
@@ -45,8 +55,15 @@ import jakarta.validation.constraints.NotBlank;
  */
 @Entity
 @Table(name = "owners")
+@EntityListeners(OwnerEntityListener.class)
 public class Owner extends Person {
 
+	/**
+	 * Number of pets from which lookups go through an index rather than a scan of the
+	 * list. Below it a scan is faster than hashing the key (see {@code OwnerBenchmark}).
+	 */
+	static final int PET_INDEX_THRESHOLD = 16;
+
 	@Column(name = "address")
 	@NotBlank
 	private String address;
@@ -60,11 +77,13 @@ public class Owner extends Person {
 	@Pattern(regexp = "\\d{10}", message = "{telephone.invalid}")
 	private String telephone;
 
-	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	@JoinColumn(name = "owner_id")
 	@OrderBy("name")
 	private final List<Pet> pets = new ArrayList<>();
 
+	private transient PetIndex petIndex;
+
 	public String getAddress() {
 		return this.address;
 	}
@@ -96,6 +115,7 @@ public class Owner extends Person {
 	public void addPet(Pet pet) {
 		if (pet.isNew()) {
 			getPets().add(pet);
+			invalidatePetIndex();
 		}
 	}
 
@@ -114,6 +134,10 @@ public class Owner extends Person {
 	 * @return the Pet with the given id, or null if no such Pet exists for this Owner
 	 */
 	public Pet getPet(Integer id) {
+		PetIndex index = petIndex();
+		if (index != null) {
+			return id != null ? index.byId().get(id) : null;
+		}
 		for (Pet pet : getPets()) {
 			if (!pet.isNew()) {
 				Integer compId = pet.getId();
@@ -132,6 +156,14 @@ public class Owner extends Person {
 	 * @return the Pet with the given name, or null if no such Pet exists for this Owner
 	 */
 	public Pet getPet(String name, boolean ignoreNew) {
+		PetIndex index = petIndex();
+		if (index != null) {
+			if (name == null) {
+				return null;
+			}
+			String key = fold(name);
+			return ignoreNew ? index.savedByName().get(key) : index.byName().get(key);
+		}
 		for (Pet pet : getPets()) {
 			String compName = pet.getName();
 			if (compName != null && compName.equalsIgnoreCase(name)) {
@@ -143,6 +175,78 @@ public class Owner extends Person {
 		return null;
 	}
 
+	void invalidatePetIndex() {
+		this.petIndex = null;
+	}
+
+	/**
+	 * Return the index of the pets, building it if needed, or {@code null} if there are
+	 * too few pets to be worth indexing. The index is also rebuilt if the list changed
+	 * behind {@link #addPet(Pet)}, or if a new pet got its id assigned by the persistence
+	 * provider, which bypasses {@link Pet#setId(Integer)}.
+	 */
+	private PetIndex petIndex() {
+		List<Pet> pets = getPets();
+		if (pets.size() < PET_INDEX_THRESHOLD) {
+			return null;
+		}
+		PetIndex index = this.petIndex;
+		if (index == null || !index.isCurrent(pets)) {
+			index = PetIndex.of(this, pets);
+			this.petIndex = index;
+		}
+		return index;
+	}
+
+	private static String fold(String name) {
+		return name.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Lookup tables of the pets of an owner. The name tables keep the first pet with a
+	 * given name in list order, as the scan does.
+	 */
+	private record PetIndex(int size, Map<Integer, Pet> byId, Map<String, Pet> byName, Map<String, Pet> savedByName,
+			List<Pet> unsaved) {
+
+		static PetIndex of(Owner owner, List<Pet> pets) {
+			Map<Integer, Pet> byId = new HashMap<>(pets.size() * 2);
+			Map<String, Pet> byName = new HashMap<>(pets.size() * 2);
+			Map<String, Pet> savedByName = new HashMap<>(pets.size() * 2);
+			List<Pet> unsaved = new ArrayList<>();
+			for (Pet pet : pets) {
+				pet.setIndexedBy(owner);
+				if (pet.isNew()) {
+					unsaved.add(pet);
+				}
+				else {
+					byId.putIfAbsent(pet.getId(), pet);
+				}
+				if (pet.getName() != null) {
+					String key = fold(pet.getName());
+					byName.putIfAbsent(key, pet);
+					if (!pet.isNew()) {
+						savedByName.putIfAbsent(key, pet);
+					}
+				}
+			}
+			return new PetIndex(pets.size(), byId, byName, savedByName, unsaved);
+		}
+
+		boolean isCurrent(List<Pet> pets) {
+			if (pets.size() != this.size) {
+				return false;
+			}
+			for (Pet pet : this.unsaved) {
+				if (!pet.isNew()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
 	@Override
 	public String toString() {
 		return new ToStringCreator(this).append("id", this.getId())
@@ -16,11 +16,23 @@
 package org.springframework.samples.petclinic.owner;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.samples.petclinic.system.PaginationMode;
+import org.springframework.samples.petclinic.system.QueryBudget;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -50,8 +62,26 @@ class OwnerController {
 
 	private final OwnerRepository owners;
 
-	public OwnerController(OwnerRepository owners) {
+	private final OwnerCounts ownerCounts;
+
+	private final ObjectProvider<OwnerLastNameIndex> lastNameIndex;
+
+	private final PaginationMode paginationMode;
+
+	private final VisitRepository visits;
+
+	private final int visitWindowSize;
+
+	public OwnerController(OwnerRepository owners, OwnerCounts ownerCounts,
+			ObjectProvider<OwnerLastNameIndex> lastNameIndex,
+			@Value("${petclinic.pagination.mode:exact}") PaginationMode paginationMode, VisitRepository visits,
+			@Value("${petclinic.visits.window-size:5}") int visitWindowSize) {
 		this.owners = owners;
+		this.ownerCounts = ownerCounts;
+		this.lastNameIndex = lastNameIndex;
+		this.paginationMode = paginationMode;
+		this.visits = visits;
+		this.visitWindowSize = visitWindowSize;
 	}
 
 	@InitBinder
@@ -68,11 +98,13 @@ class OwnerController {
 	}
 
 	@GetMapping("/owners/new")
+	@QueryBudget(0)
 	public String initCreationForm() {
 		return VIEWS_OWNER_CREATE_OR_UPDATE_FORM;
 	}
 
 	@PostMapping("/owners/new")
+	@QueryBudget(1)
 	public String processCreationForm(@Valid Owner owner, BindingResult result, RedirectAttributes redirectAttributes) {
 		if (result.hasErrors()) {
 			redirectAttributes.addFlashAttribute("error", "There was an error in creating the owner.");
@@ -85,57 +117,108 @@ class OwnerController {
 	}
 
 	@GetMapping("/owners/find")
+	@QueryBudget(0)
 	public String initFindForm() {
 		return "owners/findOwners";
 	}
 
 	@GetMapping("/owners")
-	public String processFindForm(@RequestParam(defaultValue = "1") int page, Owner owner, BindingResult result,
-			Model model) {
+	@QueryBudget(2)
+	public String processFindForm(@RequestParam(defaultValue = "1") int page,
+			@RequestParam(required = false) String afterLastName, @RequestParam(required = false) Integer afterId,
+			Owner owner, BindingResult result, Model model) {
 		// allow parameterless GET request for /owners to return all records
 		if (owner.getLastName() == null) {
 			owner.setLastName(""); // empty string signifies broadest possible search
 		}
 
 		// find owners by last name
-		Page<Owner> ownersResults = findPaginatedForOwnersLastName(page, owner.getLastName());
+		Slice<OwnerSummary> ownersResults = findPaginatedForOwnersLastName(page, owner.getLastName(), afterLastName,
+				afterId);
 		if (ownersResults.isEmpty()) {
 			// no owners found
 			result.rejectValue("lastName", "notFound", "not found");
 			return "owners/findOwners";
 		}
 
-		if (ownersResults.getTotalElements() == 1) {
+		if (ownersResults.isFirst() && !ownersResults.hasNext() && ownersResults.getNumberOfElements() == 1) {
 			// 1 owner found
-			owner = ownersResults.iterator().next();
-			return "redirect:/owners/" + owner.getId();
+			return "redirect:/owners/" + ownersResults.iterator().next().id();
 		}
 
 		// multiple owners found
 		return addPaginationModel(page, model, ownersResults);
 	}
 
-	private String addPaginationModel(int page, Model model, Page<Owner> paginated) {
-		List<Owner> listOwners = paginated.getContent();
+	private String addPaginationModel(int page, Model model, Slice<OwnerSummary> paginated) {
+		List<OwnerSummary> listOwners = paginated.getContent();
 		model.addAttribute("currentPage", page);
-		model.addAttribute("totalPages", paginated.getTotalPages());
-		model.addAttribute("totalItems", paginated.getTotalElements());
+		if (paginated instanceof Page<OwnerSummary> pages) {
+			model.addAttribute("totalPages", pages.getTotalPages());
+			model.addAttribute("totalItems", pages.getTotalElements());
+		}
+		else {
+			model.addAttribute("hasNext", paginated.hasNext());
+		}
 		model.addAttribute("listOwners", listOwners);
 		return "owners/ownersList";
 	}
 
-	private Page<Owner> findPaginatedForOwnersLastName(int page, String lastname) {
+	/**
+	 * Finds a page of owner summaries. When the {@link OwnerLastNameIndex} is enabled,
+	 * the matching ids and their count come from memory and only the rows of the page are
+	 * read, by primary key. Otherwise, when the key (last name and id) of the last owner
+	 * of the previous page is known, the page is located by seeking past that key instead
+	 * of skipping all preceding rows with an offset, which keeps deep pages as cheap as
+	 * the first one. The total number of owners is then counted as required by the
+	 * {@link PaginationMode}.
+	 */
+	private Slice<OwnerSummary> findPaginatedForOwnersLastName(int page, String lastname, String afterLastName,
+			Integer afterId) {
 		int pageSize = 5;
 		Pageable pageable = PageRequest.of(page - 1, pageSize);
-		return owners.findByLastNameStartingWith(lastname, pageable);
+		OwnerLastNameIndex index = this.lastNameIndex.getIfAvailable();
+		if (index != null) {
+			return findPaginatedFromIndex(index, lastname, pageable);
+		}
+		Slice<OwnerSummary> slice;
+		if (afterLastName == null || afterId == null) {
+			slice = owners.findSummariesByLastNameStartingWith(lastname, pageable);
+		}
+		else {
+			List<OwnerSummary> content = owners.findSummariesByLastNameStartingWithAfter(lastname, afterLastName,
+					afterId, Limit.of(pageSize + 1));
+			slice = new SliceImpl<>(content.subList(0, Math.min(content.size(), pageSize)), pageable,
+					content.size() > pageSize);
+		}
+		return switch (this.paginationMode) {
+			case EXACT -> PaginationMode.toPage(slice, () -> owners.countByLastNameStartingWith(lastname));
+			case CACHED -> PaginationMode.toPage(slice, () -> ownerCounts.countByLastNameStartingWith(lastname));
+			case SLICE -> slice;
+		};
+	}
+
+	private Page<OwnerSummary> findPaginatedFromIndex(OwnerLastNameIndex index, String lastname, Pageable pageable) {
+		Page<Integer> ids = index.findIds(lastname, pageable);
+		if (ids.isEmpty()) {
+			return Page.empty(pageable);
+		}
+		Map<Integer, OwnerSummary> summaries = owners.findSummariesByIdIn(ids.getContent())
+			.stream()
+			.collect(Collectors.toMap(OwnerSummary::id, Function.identity()));
+		// keep the order of the index, skipping owners deleted in the meantime
+		List<OwnerSummary> content = ids.stream().map(summaries::get).filter(Objects::nonNull).toList();
+		return new PageImpl<>(content, pageable, ids.getTotalElements());
 	}
 
 	@GetMapping("/owners/{ownerId}/edit")
+	@QueryBudget(1)
 	public String initUpdateOwnerForm() {
 		return VIEWS_OWNER_CREATE_OR_UPDATE_FORM;
 	}
 
 	@PostMapping("/owners/{ownerId}/edit")
+	@QueryBudget(5)
 	public String processUpdateOwnerForm(@Valid Owner owner, BindingResult result, @PathVariable("ownerId") int ownerId,
 			RedirectAttributes redirectAttributes) {
 		if (result.hasErrors()) {
@@ -156,17 +239,21 @@ class OwnerController {
 	}
 
 	/**
-	 * Custom handler for displaying an owner.
+	 * Custom handler for displaying an owner. Only the most recent visits of each pet are
+	 * shown, so that the page costs the same whatever the length of the owner's history.
 	 * @param ownerId the ID of the owner to display
 	 * @return a ModelMap with the model attributes for the view
 	 */
 	@GetMapping("/owners/{ownerId}")
+	@QueryBudget(3)
 	public ModelAndView showOwner(@PathVariable("ownerId") int ownerId) {
 		ModelAndView mav = new ModelAndView("owners/ownerDetails");
-		Optional<Owner> optionalOwner = this.owners.findById(ownerId);
+		Optional<Owner> optionalOwner = this.owners.findWithPetsById(ownerId);
 		Owner owner = optionalOwner.orElseThrow(() -> new IllegalArgumentException(
 				"Owner not found with id: " + ownerId + ". Please ensure the ID is correct "));
 		mav.addObject(owner);
+		mav.addObject("visits", VisitHistory
+			.byPet(this.visits.findRecentSummariesByOwnerId(ownerId, this.visitWindowSize + 1), this.visitWindowSize));
 		return mav;
 	}
 
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Cached counts of owners by last name prefix, used by the owner list when the
+ * {@link org.springframework.samples.petclinic.system.PaginationMode#CACHED cached}
+ * pagination mode is selected. All counts are evicted as soon as a change to an owner is
+ * committed.
+ */
+@Component
+public class OwnerCounts {
+
+	private final OwnerRepository owners;
+
+	public OwnerCounts(OwnerRepository owners) {
+		this.owners = owners;
+	}
+
+	/**
+	 * Count the {@link Owner}s whose last name <i>starts</i> with the given name.
+	 * @param lastName Value to search for
+	 * @return the number of matching owners
+	 */
+	@Cacheable("ownerCounts")
+	public long countByLastNameStartingWith(String lastName) {
+		return this.owners.countByLastNameStartingWith(lastName);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	@CacheEvict(cacheNames = "ownerCounts", allEntries = true)
+	public void onOwnerChanged(OwnerChangedEvent event) {
+	}
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.springframework.samples.petclinic.owner.ImportedOwner.ImportedPet;
+import org.springframework.samples.petclinic.owner.ImportedOwner.ImportedVisit;
+import org.springframework.util.StringUtils;
+
+/**
+ * Reads {@link ImportedOwner owners} from CSV, one at a time, so that a file of any size
+ * is imported without being held in memory.
+ * <p>
+ * The first line names the columns, in any order: {@value #OWNER_COLUMNS} for the owner,
+ * then optionally {@value #PET_COLUMNS} and {@value #VISIT_COLUMNS}. Each following line
+ * describes an owner, a pet of that owner and a visit of that pet; consecutive lines with
+ * the same owner columns belong to the same owner, and consecutive lines of an owner with
+ * the same pet name to the same pet. Fields may be quoted, with {@code ""} standing for a
+ * quote inside a quoted field.
+ * </p>
+ */
+class OwnerCsvReader implements Iterator<ImportedOwner> {
+
+	static final String OWNER_COLUMNS = "firstName,lastName,address,city,telephone";
+
+	static final String PET_COLUMNS = "petName,petBirthDate,petType";
+
+	static final String VISIT_COLUMNS = "visitDate,visitDescription";
+
+	private static final List<String> OWNER_FIELDS = List.of(OWNER_COLUMNS.split(","));
+
+	private final BufferedReader reader;
+
+	private final Map<String, Integer> columns = new HashMap<>();
+
+	private int lineNumber;
+
+	private List<String> row;
+
+	private int rowNumber;
+
+	OwnerCsvReader(Reader reader) {
+		this.reader = (reader instanceof BufferedReader buffered) ? buffered : new BufferedReader(reader);
+		List<String> header = readRow();
+		if (header == null) {
+			return;
+		}
+		for (int i = 0; i < header.size(); i++) {
+			this.columns.put(header.get(i).trim(), i);
+		}
+		List<String> missing = OWNER_FIELDS.stream().filter(column -> !this.columns.containsKey(column)).toList();
+		if (!missing.isEmpty()) {
+			throw new IllegalArgumentException("Missing CSV columns: " + String.join(", ", missing));
+		}
+		advance();
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.row != null;
+	}
+
+	@Override
+	public ImportedOwner next() {
+		if (this.row == null) {
+			throw new NoSuchElementException();
+		}
+		List<String> owner = ownerFields(this.row);
+		int position = this.rowNumber;
+		List<ImportedPet> pets = new ArrayList<>();
+		do {
+			addPetAndVisit(pets);
+			advance();
+		}
+		while (this.row != null && owner.equals(ownerFields(this.row)));
+		return new ImportedOwner(position, owner.get(0), owner.get(1), owner.get(2), owner.get(3), owner.get(4), pets);
+	}
+
+	private void addPetAndVisit(List<ImportedPet> pets) {
+		String petName = field("petName");
+		String visitDate = field("visitDate");
+		String visitDescription = field("visitDescription");
+		boolean hasVisit = visitDate != null || visitDescription != null;
+		if (petName == null && !hasVisit) {
+			return;
+		}
+		ImportedPet pet = pets.isEmpty() ? null : pets.get(pets.size() - 1);
+		if (pet == null || petName == null || !petName.equalsIgnoreCase(pet.name())) {
+			pet = new ImportedPet(this.rowNumber, petName, field("petBirthDate"), field("petType"), new ArrayList<>());
+			pets.add(pet);
+		}
+		if (hasVisit) {
+			pet.visits().add(new ImportedVisit(this.rowNumber, visitDate, visitDescription));
+		}
+	}
+
+	private List<String> ownerFields(List<String> row) {
+		return OWNER_FIELDS.stream().map(column -> field(row, column)).toList();
+	}
+
+	private String field(String column) {
+		return field(this.row, column);
+	}
+
+	private String field(List<String> row, String column) {
+		Integer index = this.columns.get(column);
+		if (index == null || index >= row.size()) {
+			return null;
+		}
+		String value = row.get(index).trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	/**
+	 * Move to the next row that is not blank.
+	 */
+	private void advance() {
+		do {
+			this.rowNumber = this.lineNumber + 1;
+			this.row = readRow();
+		}
+		while (this.row != null && this.row.stream().noneMatch(StringUtils::hasText));
+	}
+
+	/**
+	 * Read the fields of the next row, which spans several lines if a quoted field
+	 * contains line breaks.
+	 * @return the fields, or {@code null} at the end of the input
+	 */
+	private List<String> readRow() {
+		String line = readLine();
+		if (line == null) {
+			return null;
+		}
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		int i = 0;
+		while (true) {
+			if (i == line.length()) {
+				String continuation = quoted ? readLine() : null;
+				if (continuation == null) {
+					break;
+				}
+				field.append('\n');
+				line = continuation;
+				i = 0;
+				continue;
+			}
+			char c = line.charAt(i++);
+			if (quoted) {
+				if (c != '"') {
+					field.append(c);
+				}
+				else if (i < line.length() && line.charAt(i) == '"') {
+					field.append('"');
+					i++;
+				}
+				else {
+					quoted = false;
+				}
+			}
+			else if (c == '"') {
+				quoted = true;
+			}
+			else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			}
+			else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	private String readLine() {
+		try {
+			String line = this.reader.readLine();
+			if (line != null) {
+				this.lineNumber++;
+			}
+			return line;
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+}
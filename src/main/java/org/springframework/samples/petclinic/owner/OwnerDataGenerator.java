@@ -0,0 +1,513 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Generates synthetic owners, with pets and visits, to see how the application behaves at
+ * production size. Run it at startup through {@code petclinic.generator.owners} (see
+ * {@link OwnerDataGeneratorRunner}), or call it from a test or benchmark.
+ * <p>
+ * The data follows a plausible distribution: last names and cities are drawn from a
+ * Zipf-like distribution so that some prefixes match many owners, most owners have one or
+ * two pets, dogs and cats dominate, and the number of visits per pet is geometric with a
+ * long tail. The same seed always produces the same data.
+ * </p>
+ * <p>
+ * Rows are written straight through JDBC with explicit ids above the existing ones, in
+ * one transaction per {@value #OWNERS_PER_CHUNK} owners: with {@code COPY} on PostgreSQL,
+ * with {@code LOAD DATA LOCAL INFILE} on MySQL when the driver and the server allow it
+ * ({@code allowLoadLocalInfile=true} and {@code local_infile=ON}), and with batched
+ * inserts otherwise. The bulk loading APIs of the PostgreSQL and MySQL drivers are called
+ * reflectively, so that the drivers are only needed at runtime, and only the one in use.
+ * The identity columns and the {@code petclinic_seq} sequence are then moved past the
+ * generated ids.
+ * </p>
+ */
+@Component
+public class OwnerDataGenerator {
+
+	static final int OWNERS_PER_CHUNK = 5000;
+
+	private static final int BATCH_SIZE = 1000;
+
+	/**
+	 * Allocation size of the pooled ids of the "pooled-ids" profile.
+	 */
+	private static final int POOL_SIZE = 50;
+
+	private static final Log logger = LogFactory.getLog(OwnerDataGenerator.class);
+
+	private static final List<String> FIRST_NAMES = List.of("James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+			"Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica",
+			"Thomas", "Sarah", "Charles", "Karen", "Carlos", "Maria", "Wei", "Yuki", "Priya", "Omar", "Ines", "Lars");
+
+	private static final List<String> LAST_NAMES = List.of("Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+			"Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson",
+			"Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez",
+			"Clark", "Ramirez", "Lewis", "Robinson", "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres",
+			"Nguyen", "Hill", "Flores", "Green", "Adams", "Nelson", "Baker", "Hall", "Rivera", "Campbell", "Mitchell",
+			"Carter", "Roberts", "Schroeder", "McTavish", "Escobito", "Estaban", "Coleman", "Franklin", "Nakamura",
+			"Olsen", "Patel", "Rossi", "Weber", "Zimmer");
+
+	private static final List<String> STREETS = List.of("Main St.", "Oak Ave.", "Maple St.", "Cedar Ln.",
+			"W. Liberty St.", "Cardinal Ave.", "Commerce St.", "Friendly St.", "S. Fair Way", "N. Lake St.",
+			"Blackhawk Trail", "Park Blvd.");
+
+	private static final List<String> CITIES = List.of("Madison", "Sun Prairie", "McFarland", "Windsor", "Monona",
+			"Waunakee", "Middleton", "Verona", "Fitchburg", "Stoughton");
+
+	private static final List<String> PET_NAMES = List.of("Bella", "Max", "Luna", "Charlie", "Lucy", "Cooper", "Daisy",
+			"Milo", "Leo", "Basil", "Rosy", "Jewel", "Iggy", "George", "Samantha", "Lucky", "Mulligan", "Freddy", "Sly",
+			"Coco", "Nala", "Oscar", "Pepper", "Rocky", "Simba", "Teddy", "Zoe", "Bailey");
+
+	private static final List<String> DESCRIPTIONS = List.of("annual checkup", "rabies shot", "vaccination", "neutered",
+			"spayed", "dental cleaning", "limping", "skin rash", "ear infection", "upset stomach");
+
+	/**
+	 * Relative frequency of the pet types, by name; other types get a weight of 1.
+	 */
+	private static final Map<String, Integer> TYPE_WEIGHTS = Map.of("dog", 40, "cat", 35, "bird", 8, "hamster", 7,
+			"lizard", 5, "snake", 5);
+
+	/**
+	 * Relative frequency of owners with 0, 1, 2... pets.
+	 */
+	private static final int[] PETS_PER_OWNER_WEIGHTS = { 10, 45, 25, 12, 5, 3 };
+
+	private static final double MEAN_VISITS_PER_PET = 3;
+
+	private static final int MAX_VISITS_PER_PET = 30;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	public OwnerDataGenerator(DataSource dataSource, PlatformTransactionManager transactionManager) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Generate owners, with their pets and visits, and add them to the database.
+	 * @param owners the number of owners to generate
+	 * @param seed the seed of the random generator
+	 * @return the number of generated owners, pets and visits
+	 */
+	public GeneratedData generate(int owners, long seed) {
+		long start = System.nanoTime();
+		Database database = Database.of(this.jdbcTemplate);
+		Random random = new Random(seed);
+		Distribution lastNames = Distribution.zipf(LAST_NAMES.size());
+		Distribution cities = Distribution.zipf(CITIES.size());
+		List<Object[]> types = this.jdbcTemplate.query("SELECT id, name FROM types ORDER BY id",
+				(rs, rowNum) -> new Object[] { rs.getInt(1), rs.getString(2) });
+		if (types.isEmpty()) {
+			throw new IllegalStateException("Pets cannot be generated without pet types");
+		}
+		Distribution typeDistribution = new Distribution(
+				types.stream().mapToDouble(type -> TYPE_WEIGHTS.getOrDefault(type[1], 1)).toArray());
+		Distribution petsPerOwner = new Distribution(Arrays.stream(PETS_PER_OWNER_WEIGHTS).asDoubleStream().toArray());
+
+		Long sequence = database.findSequenceValue(this.jdbcTemplate);
+		// stay clear of the ids the pooled sequence may already have handed out
+		long floor = (sequence != null) ? sequence + POOL_SIZE : 0;
+		int ownerId = nextId("owners", floor);
+		int petId = nextId("pets", floor);
+		int visitId = nextId("visits", floor);
+		LocalDate today = LocalDate.now();
+		long pets = 0;
+		long visits = 0;
+		for (int from = 0; from < owners; from += OWNERS_PER_CHUNK) {
+			Rows ownerRows = new Rows("owners", "id", "first_name", "last_name", "address", "city", "telephone");
+			Rows petRows = new Rows("pets", "id", "name", "birth_date", "type_id", "owner_id");
+			Rows visitRows = new Rows("visits", "id", "pet_id", "visit_date", "description");
+			for (int i = from; i < Math.min(owners, from + OWNERS_PER_CHUNK); i++) {
+				ownerRows.add(ownerId, pick(FIRST_NAMES, random), LAST_NAMES.get(lastNames.next(random)),
+						(1 + random.nextInt(9999)) + " " + pick(STREETS, random), CITIES.get(cities.next(random)),
+						String.valueOf(6080000000L + random.nextInt(10000000)));
+				List<String> names = new ArrayList<>(PET_NAMES);
+				Collections.shuffle(names, random);
+				for (int p = petsPerOwner.next(random); p > 0; p--) {
+					LocalDate birthDate = today.minusDays(random.nextInt(15 * 365));
+					petRows.add(petId, names.get(p % names.size()), birthDate,
+							types.get(typeDistribution.next(random))[0], ownerId);
+					long days = Math.min(today.toEpochDay() - birthDate.toEpochDay(), 5 * 365) + 1;
+					for (int v = visitsPerPet(random); v > 0; v--) {
+						visitRows.add(visitId++, petId, today.minusDays(random.nextLong(days)),
+								pick(DESCRIPTIONS, random));
+					}
+					petId++;
+				}
+				ownerId++;
+			}
+			this.transactionTemplate.executeWithoutResult(status -> {
+				database.write(this.jdbcTemplate, ownerRows);
+				database.write(this.jdbcTemplate, petRows);
+				database.write(this.jdbcTemplate, visitRows);
+			});
+			pets += petRows.values.size();
+			visits += visitRows.values.size();
+		}
+		database.restartIdentity(this.jdbcTemplate, "owners", ownerId);
+		database.restartIdentity(this.jdbcTemplate, "pets", petId);
+		database.restartIdentity(this.jdbcTemplate, "visits", visitId);
+		if (sequence != null) {
+			database.restartSequence(this.jdbcTemplate, sequence,
+					Math.max(ownerId, Math.max(petId, visitId)) + POOL_SIZE);
+		}
+		GeneratedData generated = new GeneratedData(owners, pets, visits, (System.nanoTime() - start) / 1_000_000);
+		logger.info("Generated " + generated.owners() + " owners, " + generated.pets() + " pets and "
+				+ generated.visits() + " visits in " + generated.millis() + " ms through " + database.method);
+		return generated;
+	}
+
+	/**
+	 * Return the first id to generate in a table, above its existing rows and the given
+	 * floor.
+	 */
+	private int nextId(String table, long floor) {
+		Integer max = this.jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Integer.class);
+		return (int) Math.max(max == null ? 0 : max, floor) + 1;
+	}
+
+	private static int visitsPerPet(Random random) {
+		double visits = -Math.log(1 - random.nextDouble()) * MEAN_VISITS_PER_PET;
+		return (int) Math.min(visits, MAX_VISITS_PER_PET);
+	}
+
+	private static String pick(List<String> values, Random random) {
+		return values.get(random.nextInt(values.size()));
+	}
+
+	/**
+	 * What was generated.
+	 *
+	 * @param owners the number of generated owners
+	 * @param pets the number of generated pets
+	 * @param visits the number of generated visits
+	 * @param millis how long the generation took, in milliseconds
+	 */
+	public record GeneratedData(int owners, long pets, long visits, long millis) {
+
+	}
+
+	/**
+	 * Discrete distribution over {@code 0..n-1} with the given relative weights.
+	 */
+	private static final class Distribution {
+
+		private final double[] cumulative;
+
+		private Distribution(double[] weights) {
+			this.cumulative = new double[weights.length];
+			double total = 0;
+			for (int i = 0; i < weights.length; i++) {
+				total += weights[i];
+				this.cumulative[i] = total;
+			}
+		}
+
+		static Distribution zipf(int n) {
+			double[] weights = new double[n];
+			for (int i = 0; i < n; i++) {
+				weights[i] = 1.0 / (i + 1);
+			}
+			return new Distribution(weights);
+		}
+
+		int next(Random random) {
+			int index = Arrays.binarySearch(this.cumulative,
+					random.nextDouble() * this.cumulative[this.cumulative.length - 1]);
+			return Math.min(index < 0 ? -index - 1 : index, this.cumulative.length - 1);
+		}
+
+	}
+
+	/**
+	 * Rows to write to a table, as {@link String}, {@link Integer} or {@link LocalDate}
+	 * values.
+	 */
+	private static final class Rows {
+
+		private final String table;
+
+		private final String[] columns;
+
+		private final List<Object[]> values = new ArrayList<>();
+
+		private Rows(String table, String... columns) {
+			this.table = table;
+			this.columns = columns;
+		}
+
+		void add(Object... row) {
+			this.values.add(row);
+		}
+
+		String insert() {
+			return "INSERT INTO " + this.table + " (" + String.join(", ", this.columns) + ") VALUES ("
+					+ String.join(", ", Collections.nCopies(this.columns.length, "?")) + ")";
+		}
+
+		String csv() {
+			StringBuilder csv = new StringBuilder();
+			for (Object[] row : this.values) {
+				for (int i = 0; i < row.length; i++) {
+					if (i > 0) {
+						csv.append(',');
+					}
+					if (row[i] instanceof String text) {
+						csv.append('"').append(text.replace("\"", "\"\"")).append('"');
+					}
+					else {
+						csv.append(row[i]);
+					}
+				}
+				csv.append('\n');
+			}
+			return csv.toString();
+		}
+
+	}
+
+	/**
+	 * How rows are bulk-loaded and ids moved on, by database: H2, HSQLDB and any other
+	 * database through batched inserts and standard SQL. A new instance is used for each
+	 * generation.
+	 */
+	private static class Database {
+
+		private final String method;
+
+		Database(String method) {
+			this.method = method;
+		}
+
+		static Database of(JdbcTemplate jdbcTemplate) {
+			String product = jdbcTemplate
+				.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+			ClassLoader classLoader = OwnerDataGenerator.class.getClassLoader();
+			return switch (product) {
+				case "PostgreSQL" -> new PostgreSql(classLoader);
+				case "MySQL" -> new MySql(classLoader);
+				default -> new Database("batched inserts");
+			};
+		}
+
+		void write(JdbcTemplate jdbcTemplate, Rows rows) {
+			for (int from = 0; from < rows.values.size(); from += BATCH_SIZE) {
+				jdbcTemplate.batchUpdate(rows.insert(),
+						rows.values.subList(from, Math.min(rows.values.size(), from + BATCH_SIZE)));
+			}
+		}
+
+		/**
+		 * Return the next value of the pooled {@code petclinic_seq} sequence, or
+		 * {@code null} if it does not exist.
+		 */
+		Long findSequenceValue(JdbcTemplate jdbcTemplate) {
+			try {
+				return nextSequenceValue(jdbcTemplate);
+			}
+			catch (DataAccessException ex) {
+				return null;
+			}
+		}
+
+		long nextSequenceValue(JdbcTemplate jdbcTemplate) {
+			return jdbcTemplate.queryForObject("CALL NEXT VALUE FOR petclinic_seq", Long.class);
+		}
+
+		void restartIdentity(JdbcTemplate jdbcTemplate, String table, int next) {
+			jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+		}
+
+		void restartSequence(JdbcTemplate jdbcTemplate, long current, long next) {
+			if (next > current) {
+				jdbcTemplate.execute("ALTER SEQUENCE petclinic_seq RESTART WITH " + next);
+			}
+		}
+
+		/**
+		 * Return the public method of a driver class, or {@code null} if that driver is
+		 * not on the classpath.
+		 */
+		static Method findDriverMethod(ClassLoader classLoader, String className, String name,
+				Class<?>... parameterTypes) {
+			if (!ClassUtils.isPresent(className, classLoader)) {
+				return null;
+			}
+			return ClassUtils.getMethod(ClassUtils.resolveClassName(className, classLoader), name, parameterTypes);
+		}
+
+		/**
+		 * Invoke a method of a driver, rethrowing its {@link SQLException} so that
+		 * {@link JdbcTemplate} translates it.
+		 */
+		static Object invoke(Method method, Object target, Object... args) throws SQLException {
+			try {
+				return method.invoke(target, args);
+			}
+			catch (InvocationTargetException ex) {
+				if (ex.getCause() instanceof SQLException sqlException) {
+					throw sqlException;
+				}
+				if (ex.getCause() instanceof IOException ioException) {
+					throw new UncheckedIOException(ioException);
+				}
+				ReflectionUtils.rethrowRuntimeException(ex.getCause());
+				return null;
+			}
+			catch (IllegalAccessException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+
+	}
+
+	/**
+	 * PostgreSQL, through {@code COPY} with the {@code CopyManager} of the driver.
+	 */
+	private static final class PostgreSql extends Database {
+
+		private final Method getCopyApi;
+
+		private final Method copyIn;
+
+		PostgreSql(ClassLoader classLoader) {
+			super("COPY");
+			this.getCopyApi = findDriverMethod(classLoader, "org.postgresql.PGConnection", "getCopyAPI");
+			this.copyIn = findDriverMethod(classLoader, "org.postgresql.copy.CopyManager", "copyIn", String.class,
+					Reader.class);
+		}
+
+		@Override
+		void write(JdbcTemplate jdbcTemplate, Rows rows) {
+			if (this.getCopyApi == null || this.copyIn == null) {
+				super.write(jdbcTemplate, rows);
+				return;
+			}
+			String sql = "COPY " + rows.table + " (" + String.join(", ", rows.columns)
+					+ ") FROM STDIN WITH (FORMAT csv)";
+			jdbcTemplate.execute((ConnectionCallback<Object>) connection -> {
+				Object copyManager = invoke(this.getCopyApi, connection.unwrap(this.getCopyApi.getDeclaringClass()));
+				return invoke(this.copyIn, copyManager, sql, new StringReader(rows.csv()));
+			});
+		}
+
+		@Override
+		long nextSequenceValue(JdbcTemplate jdbcTemplate) {
+			return jdbcTemplate.queryForObject("SELECT nextval('petclinic_seq')", Long.class);
+		}
+
+	}
+
+	/**
+	 * MySQL, through {@code LOAD DATA LOCAL INFILE} fed by the {@code JdbcStatement} of
+	 * the driver, and batched inserts once the driver or the server refused it.
+	 */
+	private static final class MySql extends Database {
+
+		private final Method setLocalInfileInputStream;
+
+		private boolean loadDataRefused;
+
+		MySql(ClassLoader classLoader) {
+			super("LOAD DATA LOCAL INFILE");
+			this.setLocalInfileInputStream = findDriverMethod(classLoader, "com.mysql.cj.jdbc.JdbcStatement",
+					"setLocalInfileInputStream", InputStream.class);
+			this.loadDataRefused = (this.setLocalInfileInputStream == null);
+		}
+
+		@Override
+		void write(JdbcTemplate jdbcTemplate, Rows rows) {
+			if (!this.loadDataRefused) {
+				try {
+					jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> loadData(connection, rows));
+					return;
+				}
+				catch (DataAccessException ex) {
+					// the driver or the server does not allow LOAD DATA LOCAL INFILE
+					logger.warn("LOAD DATA refused, falling back to batched inserts: " + ex.getMessage());
+					this.loadDataRefused = true;
+				}
+			}
+			super.write(jdbcTemplate, rows);
+		}
+
+		private int loadData(Connection connection, Rows rows) throws SQLException {
+			try (Statement statement = connection.createStatement()) {
+				invoke(this.setLocalInfileInputStream,
+						statement.unwrap(this.setLocalInfileInputStream.getDeclaringClass()),
+						new ByteArrayInputStream(rows.csv().getBytes(StandardCharsets.UTF_8)));
+				return statement.executeUpdate("LOAD DATA LOCAL INFILE '" + rows.table + ".csv' INTO TABLE "
+						+ rows.table + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"'"
+						+ " ESCAPED BY '' LINES TERMINATED BY '\\n' (" + String.join(", ", rows.columns) + ")");
+			}
+		}
+
+		@Override
+		long nextSequenceValue(JdbcTemplate jdbcTemplate) {
+			Long next = jdbcTemplate.queryForObject("SELECT MAX(next_val) FROM petclinic_seq", Long.class);
+			return next == null ? 0 : next;
+		}
+
+		@Override
+		void restartIdentity(JdbcTemplate jdbcTemplate, String table, int next) {
+			// AUTO_INCREMENT already moved past the inserted ids
+		}
+
+		@Override
+		void restartSequence(JdbcTemplate jdbcTemplate, long current, long next) {
+			jdbcTemplate.update("UPDATE petclinic_seq SET next_val = ? WHERE next_val < ?", next, next);
+		}
+
+	}
+
+}
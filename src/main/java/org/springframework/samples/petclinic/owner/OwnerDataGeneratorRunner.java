@@ -0,0 +1,77 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds {@code petclinic.generator.owners} synthetic owners, with their pets and visits,
+ * to the database at startup, e.g. {@code --petclinic.generator.owners=100000}. Only
+ * created when that property is set.
+ * <p>
+ * The rows are written behind the back of JPA, so the owner count cache and, when
+ * enabled, the {@link OwnerLastNameIndex} are refreshed afterwards.
+ * </p>
+ *
+ * @see OwnerDataGenerator
+ */
+@Component
+@ConditionalOnProperty(name = "petclinic.generator.owners")
+public class OwnerDataGeneratorRunner implements CommandLineRunner {
+
+	private final OwnerDataGenerator generator;
+
+	private final OwnerRepository owners;
+
+	private final ObjectProvider<OwnerLastNameIndex> lastNameIndex;
+
+	private final CacheManager cacheManager;
+
+	private final int count;
+
+	private final long seed;
+
+	public OwnerDataGeneratorRunner(OwnerDataGenerator generator, OwnerRepository owners,
+			ObjectProvider<OwnerLastNameIndex> lastNameIndex, CacheManager cacheManager,
+			@Value("${petclinic.generator.owners}") int count, @Value("${petclinic.generator.seed:42}") long seed) {
+		this.generator = generator;
+		this.owners = owners;
+		this.lastNameIndex = lastNameIndex;
+		this.cacheManager = cacheManager;
+		this.count = count;
+		this.seed = seed;
+	}
+
+	@Override
+	public void run(String... args) {
+		if (this.count <= 0) {
+			return;
+		}
+		this.generator.generate(this.count, this.seed);
+		this.lastNameIndex.ifAvailable(index -> index.rebuild(this.owners.findIdsAndLastNames()));
+		Cache ownerCounts = this.cacheManager.getCache("ownerCounts");
+		if (ownerCounts != null) {
+			ownerCounts.clear();
+		}
+	}
+
+}
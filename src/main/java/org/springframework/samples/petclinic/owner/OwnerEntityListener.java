@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener publishing an {@link OwnerChangedEvent} for every {@link Owner}
+ * written through {@link OwnerRepository}, so that in-memory views of the owners (such as
+ * the {@link OwnerLastNameIndex} or the cached owner counts) can follow the database.
+ * Consumers are expected to use transactional event listeners, so they only see changes
+ * that were actually committed.
+ */
+class OwnerEntityListener {
+
+	private final ApplicationEventPublisher events;
+
+	OwnerEntityListener(ApplicationEventPublisher events) {
+		this.events = events;
+	}
+
+	@PostPersist
+	@PostUpdate
+	void saved(Owner owner) {
+		this.events.publishEvent(new OwnerChangedEvent(owner.getId(), owner.getLastName(), false));
+	}
+
+	@PostRemove
+	void removed(Owner owner) {
+		this.events.publishEvent(new OwnerChangedEvent(owner.getId(), owner.getLastName(), true));
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.system.QueryBudget;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Downloads of the whole clinic dataset, written by the {@link OwnerExporter} straight to
+ * the response as the rows are read. The export runs on the request thread rather than as
+ * an asynchronous request, so that a large dataset is not cut short by the async request
+ * timeout.
+ */
+@Controller
+class OwnerExportController {
+
+	private final OwnerExporter exporter;
+
+	OwnerExportController(OwnerExporter exporter) {
+		this.exporter = exporter;
+	}
+
+	@GetMapping("/owners/export.ndjson")
+	@QueryBudget(1)
+	public void exportNdjson(HttpServletResponse response) throws IOException {
+		this.exporter.exportNdjson(download(response, "owners.ndjson", MediaType.APPLICATION_NDJSON_VALUE));
+	}
+
+	@GetMapping("/owners/export.csv")
+	@QueryBudget(1)
+	public void exportCsv(HttpServletResponse response) throws IOException {
+		this.exporter.exportCsv(download(response, "owners.csv", "text/csv;charset=UTF-8"));
+	}
+
+	private static OutputStream download(HttpServletResponse response, String filename, String contentType)
+			throws IOException {
+		response.setContentType(contentType);
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+				ContentDisposition.attachment().filename(filename).build().toString());
+		return response.getOutputStream();
+	}
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Exports every owner, with its pets and their visits, as newline delimited JSON (one
+ * owner per line, in the format accepted by {@link OwnerImporter#importJson}) or as CSV
+ * (one visit per row, in the format read by {@link OwnerCsvReader}, plus the ids).
+ * <p>
+ * The owners, pets, types and visits are read by a single query, ordered by owner and
+ * pet, through a forward-only JDBC cursor that fetches
+ * {@code petclinic.export.fetch-size} rows at a time. Each row is written to the output
+ * as soon as it is read, so the memory used does not depend on the size of the dataset
+ * and no entity is loaded. The query runs in a read-only transaction, which PostgreSQL
+ * needs to honor the fetch size; MySQL needs {@code useCursorFetch=true} on the JDBC URL.
+ * </p>
+ */
+@Component
+public class OwnerExporter {
+
+	static final String CSV_HEADER = "ownerId," + OwnerCsvReader.OWNER_COLUMNS + ",petId," + OwnerCsvReader.PET_COLUMNS
+			+ ",visitId," + OwnerCsvReader.VISIT_COLUMNS;
+
+	private static final String SQL = """
+			SELECT owners.id, owners.first_name, owners.last_name, owners.address, owners.city, owners.telephone,
+				pets.id, pets.name, pets.birth_date, types.name, visits.id, visits.visit_date, visits.description
+			FROM owners
+				LEFT JOIN pets ON pets.owner_id = owners.id
+				LEFT JOIN types ON types.id = pets.type_id
+				LEFT JOIN visits ON visits.pet_id = pets.id
+			ORDER BY owners.id, pets.id, visits.id
+			""";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final ObjectMapper objectMapper;
+
+	public OwnerExporter(DataSource dataSource, PlatformTransactionManager transactionManager,
+			ObjectMapper objectMapper, @Value("${petclinic.export.fetch-size:500}") int fetchSize) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.setFetchSize(fetchSize);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Write every owner as a JSON object on its own line, with its pets and their visits
+	 * nested.
+	 * @param out the stream to write to; it is flushed but not closed
+	 */
+	public void exportNdjson(OutputStream out) throws IOException {
+		try (JsonGenerator json = this.objectMapper.getFactory().createGenerator(out)) {
+			json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+			export(new NdjsonRows(json));
+			if (json.getOutputContext().getCurrentIndex() >= 0) {
+				json.writeRaw('\n');
+			}
+		}
+	}
+
+	/**
+	 * Write every visit as a CSV row, after a header row. Pets without visits and owners
+	 * without pets get a row with empty visit, respectively pet, columns.
+	 * @param out the stream to write to; it is flushed but not closed
+	 */
+	public void exportCsv(OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		writer.write(CSV_HEADER);
+		writer.write('\n');
+		export(new CsvRows(writer));
+		writer.flush();
+	}
+
+	private void export(RowWriter rows) throws IOException {
+		try {
+			this.transactionTemplate.executeWithoutResult(status -> this.jdbcTemplate.query(SQL, rows));
+			rows.finish();
+		}
+		catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+	}
+
+	private abstract static class RowWriter implements RowCallbackHandler {
+
+		@Override
+		public void processRow(ResultSet rs) throws SQLException {
+			try {
+				write(rs);
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+		abstract void write(ResultSet rs) throws SQLException, IOException;
+
+		void finish() throws IOException {
+		}
+
+		static Integer id(ResultSet rs, int column) throws SQLException {
+			return rs.getObject(column, Integer.class);
+		}
+
+		static String date(ResultSet rs, int column) throws SQLException {
+			LocalDate date = rs.getObject(column, LocalDate.class);
+			return (date != null) ? date.toString() : null;
+		}
+
+	}
+
+	/**
+	 * Streams the rows as nested JSON objects: an owner is opened on its first row and
+	 * closed on the first row of the next owner, and likewise for pets.
+	 */
+	private static final class NdjsonRows extends RowWriter {
+
+		private final JsonGenerator json;
+
+		private Integer ownerId;
+
+		private Integer petId;
+
+		NdjsonRows(JsonGenerator json) {
+			this.json = json;
+		}
+
+		@Override
+		void write(ResultSet rs) throws SQLException, IOException {
+			Integer ownerId = id(rs, 1);
+			Integer petId = id(rs, 7);
+			if (!ownerId.equals(this.ownerId)) {
+				finish();
+				this.ownerId = ownerId;
+				this.json.writeStartObject();
+				this.json.writeNumberField("id", ownerId);
+				this.json.writeStringField("firstName", rs.getString(2));
+				this.json.writeStringField("lastName", rs.getString(3));
+				this.json.writeStringField("address", rs.getString(4));
+				this.json.writeStringField("city", rs.getString(5));
+				this.json.writeStringField("telephone", rs.getString(6));
+				this.json.writeArrayFieldStart("pets");
+			}
+			if (petId != null && !petId.equals(this.petId)) {
+				closePet();
+				this.petId = petId;
+				this.json.writeStartObject();
+				this.json.writeNumberField("id", petId);
+				this.json.writeStringField("name", rs.getString(8));
+				this.json.writeStringField("birthDate", date(rs, 9));
+				this.json.writeStringField("type", rs.getString(10));
+				this.json.writeArrayFieldStart("visits");
+			}
+			Integer visitId = id(rs, 11);
+			if (visitId != null) {
+				this.json.writeStartObject();
+				this.json.writeNumberField("id", visitId);
+				this.json.writeStringField("date", date(rs, 12));
+				this.json.writeStringField("description", rs.getString(13));
+				this.json.writeEndObject();
+			}
+		}
+
+		@Override
+		void finish() throws IOException {
+			closePet();
+			if (this.ownerId != null) {
+				this.json.writeEndArray();
+				this.json.writeEndObject();
+				this.ownerId = null;
+			}
+		}
+
+		private void closePet() throws IOException {
+			if (this.petId != null) {
+				this.json.writeEndArray();
+				this.json.writeEndObject();
+				this.petId = null;
+			}
+		}
+
+	}
+
+	private static final class CsvRows extends RowWriter {
+
+		private final Writer writer;
+
+		CsvRows(Writer writer) {
+			this.writer = writer;
+		}
+
+		@Override
+		void write(ResultSet rs) throws SQLException, IOException {
+			field(id(rs, 1), false);
+			for (int column = 2; column <= 6; column++) {
+				field(rs.getString(column), false);
+			}
+			field(id(rs, 7), false);
+			field(rs.getString(8), false);
+			field(date(rs, 9), false);
+			field(rs.getString(10), false);
+			field(id(rs, 11), false);
+			field(date(rs, 12), false);
+			field(rs.getString(13), true);
+		}
+
+		private void field(Object value, boolean last) throws IOException {
+			String text = Objects.toString(value, "");
+			if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+					|| text.indexOf('\r') >= 0) {
+				text = '"' + text.replace("\"", "\"\"") + '"';
+			}
+			this.writer.write(text);
+			this.writer.write(last ? '\n' : ',');
+		}
+
+	}
+
+}
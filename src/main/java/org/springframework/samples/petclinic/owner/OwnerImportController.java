@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Bulk import of owners, with their pets and visits, from CSV or JSON; see
+ * {@link OwnerImporter}. The response sums up the import and, when rows were rejected,
+ * points at the CSV report of the rejections through its {@code Location} header.
+ */
+@Controller
+class OwnerImportController {
+
+	private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+	private final OwnerImporter importer;
+
+	OwnerImportController(OwnerImporter importer) {
+		this.importer = importer;
+	}
+
+	@PostMapping(value = "/owners/import", consumes = "text/csv", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<ImportResult> importCsv(Reader csv) {
+		return withReport(this.importer.importCsv(csv));
+	}
+
+	@PostMapping(value = "/owners/import", consumes = MediaType.APPLICATION_JSON_VALUE,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<ImportResult> importJson(InputStream json) throws IOException {
+		return withReport(this.importer.importJson(json));
+	}
+
+	@GetMapping("/owners/import/{reportId}/errors")
+	public ResponseEntity<String> showErrors(@PathVariable String reportId) {
+		List<ImportError> errors = this.importer.findErrors(reportId);
+		if (errors == null) {
+			return ResponseEntity.notFound().build();
+		}
+		StringBuilder csv = new StringBuilder("position,field,message\n");
+		for (ImportError error : errors) {
+			csv.append(error.position()).append(',').append(quote(error.field())).append(',');
+			csv.append(quote(error.message())).append('\n');
+		}
+		return ResponseEntity.ok().contentType(TEXT_CSV).body(csv.toString());
+	}
+
+	@ExceptionHandler({ IllegalArgumentException.class, JsonProcessingException.class })
+	public ResponseEntity<String> handleUnreadableFile(Exception ex) {
+		return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(ex.getMessage());
+	}
+
+	private static ResponseEntity<ImportResult> withReport(ImportResult result) {
+		if (result.reportId() == null) {
+			return ResponseEntity.ok(result);
+		}
+		URI report = ServletUriComponentsBuilder.fromCurrentRequest()
+			.path("/{reportId}/errors")
+			.buildAndExpand(result.reportId())
+			.toUri();
+		return ResponseEntity.ok().location(report).body(result);
+	}
+
+	private static String quote(String value) {
+		if (value == null) {
+			return "";
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.samples.petclinic.owner.ImportedOwner.ImportedPet;
+import org.springframework.samples.petclinic.owner.ImportedOwner.ImportedVisit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Imports owners, with their pets and visits, from CSV (see {@link OwnerCsvReader}) or
+ * from a JSON array of owners. The input is read one owner at a time and each row is
+ * validated like the corresponding form: Bean Validation for owners and visits,
+ * {@link PetValidator} and a unique name per owner for pets. A rejected owner is skipped
+ * with its pets, a rejected pet with its visits.
+ * <p>
+ * Valid owners are saved in batches of {@code petclinic.import.batch-size}, each in its
+ * own transaction, so that a failure only rolls back a batch; the owners of a failed
+ * batch are then saved one by one to isolate the culprits, whatever the database or the
+ * persistence provider refused them for. The first
+ * {@code petclinic.import.max-reported-errors} rejected rows are kept in the
+ * {@value #REPORTS_CACHE} cache, from which they can be downloaded as a CSV report; the
+ * others are only counted.
+ * </p>
+ */
+@Component
+public class OwnerImporter {
+
+	static final String REPORTS_CACHE = "importReports";
+
+	private final OwnerRepository owners;
+
+	private final PetTypeCache petTypes;
+
+	private final SpringValidatorAdapter validator;
+
+	private final PetValidator petValidator = new PetValidator();
+
+	private final ObjectMapper objectMapper;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final CacheManager cacheManager;
+
+	private final int batchSize;
+
+	private final int maxReportedErrors;
+
+	public OwnerImporter(OwnerRepository owners, PetTypeCache petTypes, jakarta.validation.Validator validator,
+			ObjectMapper objectMapper, PlatformTransactionManager transactionManager, CacheManager cacheManager,
+			@Value("${petclinic.import.batch-size:100}") int batchSize,
+			@Value("${petclinic.import.max-reported-errors:1000}") int maxReportedErrors) {
+		this.owners = owners;
+		this.petTypes = petTypes;
+		this.validator = new SpringValidatorAdapter(validator);
+		this.objectMapper = objectMapper;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.cacheManager = cacheManager;
+		this.batchSize = batchSize;
+		this.maxReportedErrors = maxReportedErrors;
+	}
+
+	/**
+	 * Import the owners of a CSV file.
+	 * @param csv the content of the file
+	 * @return the outcome of the import
+	 * @throws IllegalArgumentException if the header of the file lacks owner columns
+	 */
+	public ImportResult importCsv(Reader csv) {
+		return importOwners(new OwnerCsvReader(csv));
+	}
+
+	/**
+	 * Import the owners of a JSON array.
+	 * @param json the content of the file
+	 * @return the outcome of the import
+	 * @throws IOException if the content is not a JSON array
+	 */
+	public ImportResult importJson(InputStream json) throws IOException {
+		MappingIterator<ImportedOwner> owners = this.objectMapper.readerFor(ImportedOwner.class).readValues(json);
+		return importOwners(new Iterator<>() {
+
+			private int position;
+
+			@Override
+			public boolean hasNext() {
+				return owners.hasNext();
+			}
+
+			@Override
+			public ImportedOwner next() {
+				return owners.next().at(++this.position);
+			}
+
+		});
+	}
+
+	/**
+	 * Return the rejected rows of an import.
+	 * @param reportId the id of the report, as found in the {@link ImportResult}
+	 * @return the rejected rows, or {@code null} if the report is unknown or has expired
+	 */
+	public List<ImportError> findErrors(String reportId) {
+		ImportReport report = reports().get(reportId, ImportReport.class);
+		return (report != null) ? report.errors() : null;
+	}
+
+	private ImportResult importOwners(Iterator<ImportedOwner> input) {
+		Progress progress = new Progress(this.maxReportedErrors);
+		List<ValidOwner> batch = new ArrayList<>(this.batchSize);
+		while (true) {
+			ImportedOwner imported;
+			try {
+				if (!input.hasNext()) {
+					break;
+				}
+				imported = input.next();
+			}
+			catch (RuntimeException ex) {
+				// unreadable input: keep what was imported so far
+				progress.reject(new ImportError(progress.position + 1, "file", message(ex)));
+				break;
+			}
+			progress.position = imported.position();
+			Owner owner = toOwner(imported, progress);
+			if (owner != null) {
+				batch.add(new ValidOwner(imported.position(), owner));
+			}
+			if (batch.size() == this.batchSize) {
+				write(batch, progress);
+				batch.clear();
+			}
+		}
+		write(batch, progress);
+		String reportId = null;
+		if (progress.rejected > 0) {
+			reportId = UUID.randomUUID().toString();
+			reports().put(reportId, new ImportReport(List.copyOf(progress.errors)));
+		}
+		return new ImportResult(progress.owners, progress.pets, progress.visits, progress.rejected, reportId);
+	}
+
+	private void write(List<ValidOwner> batch, Progress progress) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		try {
+			List<Owner> saved = this.transactionTemplate
+				.execute(status -> this.owners.saveAll(batch.stream().map(ValidOwner::owner).toList()));
+			saved.forEach(progress::count);
+		}
+		catch (RuntimeException ex) {
+			for (ValidOwner valid : batch) {
+				try {
+					// save a copy: the failed batch left ids and Hibernate collections
+					// on the validated entities
+					progress.count(this.transactionTemplate.execute(status -> this.owners.save(copy(valid.owner()))));
+				}
+				catch (RuntimeException single) {
+					progress.reject(new ImportError(valid.position(), "owner", message(single)));
+				}
+			}
+		}
+	}
+
+	private static Owner copy(Owner source) {
+		Owner owner = new Owner();
+		owner.setFirstName(source.getFirstName());
+		owner.setLastName(source.getLastName());
+		owner.setAddress(source.getAddress());
+		owner.setCity(source.getCity());
+		owner.setTelephone(source.getTelephone());
+		for (Pet sourcePet : source.getPets()) {
+			Pet pet = new Pet();
+			pet.setName(sourcePet.getName());
+			pet.setBirthDate(sourcePet.getBirthDate());
+			pet.setType(sourcePet.getType());
+			for (Visit sourceVisit : sourcePet.getVisits()) {
+				Visit visit = new Visit();
+				visit.setDate(sourceVisit.getDate());
+				visit.setDescription(sourceVisit.getDescription());
+				pet.addVisit(visit);
+			}
+			owner.addPet(pet);
+		}
+		return owner;
+	}
+
+	private Owner toOwner(ImportedOwner imported, Progress progress) {
+		Owner owner = new Owner();
+		owner.setFirstName(imported.firstName());
+		owner.setLastName(imported.lastName());
+		owner.setAddress(imported.address());
+		owner.setCity(imported.city());
+		owner.setTelephone(imported.telephone());
+		BindingResult result = new BeanPropertyBindingResult(owner, "owner");
+		this.validator.validate(owner, result);
+		if (rejected(result, imported.position(), progress)) {
+			return null;
+		}
+		for (ImportedPet importedPet : imported.pets()) {
+			Pet pet = toPet(owner, importedPet, progress);
+			if (pet != null) {
+				owner.addPet(pet);
+			}
+		}
+		return owner;
+	}
+
+	private Pet toPet(Owner owner, ImportedPet imported, Progress progress) {
+		Pet pet = new Pet();
+		BindingResult result = new BeanPropertyBindingResult(pet, "pet");
+		pet.setName(imported.name());
+		pet.setBirthDate(parseDate(imported.birthDate(), "birthDate", result));
+		if (StringUtils.hasText(imported.type())) {
+			pet.setType(this.petTypes.findByName(imported.type()));
+			if (pet.getType() == null) {
+				result.rejectValue("type", "notFound", "unknown pet type: " + imported.type());
+			}
+		}
+		this.petValidator.validate(pet, result);
+		if (StringUtils.hasText(pet.getName()) && owner.getPet(pet.getName(), false) != null) {
+			result.rejectValue("name", "duplicate", "already exists");
+		}
+		if (rejected(result, imported.position(), progress)) {
+			return null;
+		}
+		for (ImportedVisit importedVisit : imported.visits()) {
+			Visit visit = toVisit(importedVisit, progress);
+			if (visit != null) {
+				pet.addVisit(visit);
+			}
+		}
+		return pet;
+	}
+
+	private Visit toVisit(ImportedVisit imported, Progress progress) {
+		Visit visit = new Visit();
+		BindingResult result = new BeanPropertyBindingResult(visit, "visit");
+		visit.setDescription(imported.description());
+		if (imported.date() != null) {
+			visit.setDate(parseDate(imported.date(), "date", result));
+		}
+		this.validator.validate(visit, result);
+		return rejected(result, imported.position(), progress) ? null : visit;
+	}
+
+	private static LocalDate parseDate(String value, String field, Errors errors) {
+		if (value == null) {
+			return null;
+		}
+		try {
+			return LocalDate.parse(value);
+		}
+		catch (DateTimeParseException ex) {
+			errors.rejectValue(field, "typeMismatch", "invalid date, expected yyyy-MM-dd: " + value);
+			return null;
+		}
+	}
+
+	private static boolean rejected(BindingResult result, int position, Progress progress) {
+		Set<String> rejectedFields = new HashSet<>();
+		for (ObjectError error : result.getAllErrors()) {
+			String field = (error instanceof FieldError fieldError) ? fieldError.getField() : error.getObjectName();
+			// report the first error of a field only, e.g. an unknown pet type but
+			// not also the missing type that follows from it
+			if (rejectedFields.add(field)) {
+				progress.reject(new ImportError(position, field, error.getDefaultMessage()));
+			}
+		}
+		return result.hasErrors();
+	}
+
+	private static String message(Exception ex) {
+		return NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+	}
+
+	private Cache reports() {
+		return this.cacheManager.getCache(REPORTS_CACHE);
+	}
+
+	/**
+	 * An owner that passed validation, with its pets and visits, ready to be saved.
+	 */
+	private record ValidOwner(int position, Owner owner) {
+
+	}
+
+	/**
+	 * The rejected rows of an import, as kept in the {@value #REPORTS_CACHE} cache.
+	 */
+	private record ImportReport(List<ImportError> errors) {
+
+	}
+
+	private static final class Progress {
+
+		private final List<ImportError> errors = new ArrayList<>();
+
+		private final int maxReportedErrors;
+
+		private int rejected;
+
+		private int position;
+
+		private int owners;
+
+		private int pets;
+
+		private int visits;
+
+		Progress(int maxReportedErrors) {
+			this.maxReportedErrors = maxReportedErrors;
+		}
+
+		void reject(ImportError error) {
+			// a large file that is mostly invalid must not hold all its errors in memory
+			if (this.errors.size() < this.maxReportedErrors) {
+				this.errors.add(error);
+			}
+			this.rejected++;
+		}
+
+		void count(Owner owner) {
+			this.owners++;
+			this.pets += owner.getPets().size();
+			this.visits += owner.getPets().stream().mapToInt(pet -> pet.getVisits().size()).sum();
+		}
+
+	}
+
+}
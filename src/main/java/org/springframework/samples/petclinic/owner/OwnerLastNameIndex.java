@@ -0,0 +1,324 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory index of the owners' last names, used to answer the prefix searches of the
+ * find owners form without a {@code LIKE} query and a {@code COUNT} query per keystroke.
+ * <p>
+ * The last names are kept sorted in a plain array, next to a parallel array of owner ids,
+ * so that a prefix maps to a contiguous range found with two binary searches. The prefix
+ * is matched like the {@code LIKE} query it replaces on the {@code database} in use (see
+ * {@link Matching}), and the names, folded the same way, are ordered by code point then
+ * id. For ASCII names, this is the order of the {@code ORDER BY} of that query, except on
+ * a PostgreSQL database with a linguistic collation, which sorts upper and lower case
+ * names together where the index puts upper case first. The index is loaded once at
+ * startup and then kept in step with the database through the {@link OwnerChangedEvent}s
+ * of committed transactions. It is only created when the
+ * {@code petclinic.owners.last-name-index.enabled} property is {@code true}.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "petclinic.owners.last-name-index.enabled", havingValue = "true")
+public class OwnerLastNameIndex implements InitializingBean {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+	private final OwnerRepository owners;
+
+	private final Matching matching;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<Integer, String> namesById = new HashMap<>();
+
+	private String[] names = new String[INITIAL_CAPACITY];
+
+	private int[] ids = new int[INITIAL_CAPACITY];
+
+	private int size;
+
+	public OwnerLastNameIndex(OwnerRepository owners, @Value("${database:h2}") String database) {
+		this.owners = owners;
+		this.matching = Matching.forDatabase(database);
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		rebuild(this.owners.findIdsAndLastNames());
+	}
+
+	/**
+	 * Replace the whole content of the index.
+	 * @param idsAndLastNames pairs of owner id and last name
+	 */
+	public void rebuild(List<Object[]> idsAndLastNames) {
+		this.lock.writeLock().lock();
+		try {
+			this.namesById.clear();
+			this.size = 0;
+			this.names = new String[Math.max(INITIAL_CAPACITY, idsAndLastNames.size())];
+			this.ids = new int[this.names.length];
+			for (Object[] idAndLastName : idsAndLastNames) {
+				put((Integer) idAndLastName[0], (String) idAndLastName[1]);
+			}
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Add an owner to the index, or move it if its last name changed.
+	 * @param id the id of the owner
+	 * @param lastName the last name of the owner
+	 */
+	public void put(int id, String lastName) {
+		String name = normalize(lastName);
+		this.lock.writeLock().lock();
+		try {
+			String previous = this.namesById.put(id, name);
+			if (previous != null) {
+				if (previous.equals(name)) {
+					return;
+				}
+				removeAt(position(previous, id));
+			}
+			insertAt(-position(name, id) - 1, name, id);
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Remove an owner from the index.
+	 * @param id the id of the owner
+	 */
+	public void remove(int id) {
+		this.lock.writeLock().lock();
+		try {
+			String previous = this.namesById.remove(id);
+			if (previous != null) {
+				removeAt(position(previous, id));
+			}
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	void onOwnerChanged(OwnerChangedEvent event) {
+		if (event.removed()) {
+			remove(event.ownerId());
+		}
+		else {
+			put(event.ownerId(), event.lastName());
+		}
+	}
+
+	/**
+	 * Count the owners whose last name <i>starts</i> with the given prefix.
+	 * @param prefix the prefix to search for
+	 * @return the number of matching owners
+	 */
+	public int count(String prefix) {
+		String name = normalize(prefix);
+		this.lock.readLock().lock();
+		try {
+			return upperBound(name) - lowerBound(name);
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Retrieve a page of the ids of the owners whose last name <i>starts</i> with the
+	 * given prefix, ordered by last name and id.
+	 * @param prefix the prefix to search for
+	 * @param pageable the page to retrieve
+	 * @return the matching owner ids, with the total number of matches
+	 */
+	public Page<Integer> findIds(String prefix, Pageable pageable) {
+		String name = normalize(prefix);
+		this.lock.readLock().lock();
+		try {
+			int from = lowerBound(name);
+			int to = upperBound(name);
+			int start = (int) Math.min(from + pageable.getOffset(), to);
+			int end = Math.min(start + pageable.getPageSize(), to);
+			List<Integer> content = Arrays.stream(this.ids, start, end).boxed().toList();
+			return new PageImpl<>(content, pageable, to - from);
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Return the number of owners in the index.
+	 * @return the number of indexed owners
+	 */
+	public int size() {
+		this.lock.readLock().lock();
+		try {
+			return this.size;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	private String normalize(String lastName) {
+		return (lastName != null) ? this.matching.fold(lastName) : "";
+	}
+
+	/**
+	 * Binary search of the given entry, following the contract of
+	 * {@link Arrays#binarySearch(int[], int)}.
+	 */
+	private int position(String name, int id) {
+		int low = 0;
+		int high = this.size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = this.names[mid].compareTo(name);
+			if (cmp == 0) {
+				cmp = Integer.compare(this.ids[mid], id);
+			}
+			if (cmp < 0) {
+				low = mid + 1;
+			}
+			else if (cmp > 0) {
+				high = mid - 1;
+			}
+			else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * Index of the first name that is greater than or equal to the given prefix.
+	 */
+	private int lowerBound(String prefix) {
+		int low = 0;
+		int high = this.size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (this.names[mid].compareTo(prefix) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Index of the first name that sorts after every name starting with the given prefix.
+	 */
+	private int upperBound(String prefix) {
+		return lowerBound(prefix + Character.MAX_VALUE);
+	}
+
+	private void insertAt(int index, String name, int id) {
+		if (this.size == this.names.length) {
+			int capacity = this.size + (this.size >> 1);
+			this.names = Arrays.copyOf(this.names, capacity);
+			this.ids = Arrays.copyOf(this.ids, capacity);
+		}
+		System.arraycopy(this.names, index, this.names, index + 1, this.size - index);
+		System.arraycopy(this.ids, index, this.ids, index + 1, this.size - index);
+		this.names[index] = name;
+		this.ids[index] = id;
+		this.size++;
+	}
+
+	private void removeAt(int index) {
+		System.arraycopy(this.names, index + 1, this.names, index, this.size - index - 1);
+		System.arraycopy(this.ids, index + 1, this.ids, index, this.size - index - 1);
+		this.size--;
+		this.names[this.size] = null;
+	}
+
+	/**
+	 * How the {@code LIKE} query of each database compares the last names of the owners.
+	 */
+	enum Matching {
+
+		/**
+		 * Case-sensitive, as the {@code text} column of PostgreSQL.
+		 */
+		EXACT,
+
+		/**
+		 * Ignoring case, as the {@code VARCHAR_IGNORECASE} column of H2 and HSQLDB.
+		 */
+		IGNORE_CASE,
+
+		/**
+		 * Ignoring case and accents, as the case-insensitive collation of the MySQL
+		 * database (see its {@code user.sql}).
+		 */
+		IGNORE_CASE_AND_ACCENTS;
+
+		static Matching forDatabase(String database) {
+			return switch (database) {
+				case "postgres" -> EXACT;
+				case "mysql" -> IGNORE_CASE_AND_ACCENTS;
+				default -> IGNORE_CASE;
+			};
+		}
+
+		String fold(String name) {
+			return switch (this) {
+				case EXACT -> name;
+				case IGNORE_CASE -> name.toLowerCase(Locale.ROOT);
+				case IGNORE_CASE_AND_ACCENTS -> COMBINING_MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD))
+					.replaceAll("")
+					.toLowerCase(Locale.ROOT);
+			};
+		}
+
+	}
+
+}
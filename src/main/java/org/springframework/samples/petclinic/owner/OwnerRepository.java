@@ -15,12 +15,16 @@
  */
 package org.springframework.samples.petclinic.owner;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import jakarta.annotation.Nonnull;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
@@ -29,6 +33,12 @@ import org.springframework.data.jpa.repository.Query;
  * with Spring Data naming conventions so this interface can easily be extended for Spring
  * Data. See:
  * https://docs.spring.io/spring-data/jpa/docs/current/reference/html/#repositories.query-methods.query-creation
+ * <p>
+ * The {@link Owner#getPets() pets} and {@link Pet#getVisits() visits} associations are
+ * lazy, so each use case picks the fetch plan it needs: the plain finders only load the
+ * owners themselves, while the {@code findWith...} variants fetch the associations in the
+ * same statement through an entity graph.
+ * </p>
  *
  * @author Ken Krebs
  * @author Juergen Hoeller
@@ -38,13 +48,6 @@ import org.springframework.data.jpa.repository.Query;
  */
 public interface OwnerRepository extends JpaRepository<Owner, Integer> {
 
-	/**
-	 * Retrieve all {@link PetType}s from the data store.
-	 * @return a Collection of {@link PetType}s.
-	 */
-	@Query("SELECT ptype FROM PetType ptype ORDER BY ptype.name")
-	List<PetType> findPetTypes();
-
 	/**
 	 * Retrieve {@link Owner}s from the data store by last name, returning all owners
 	 * whose last name <i>starts</i> with the given name.
@@ -54,6 +57,81 @@ public interface OwnerRepository extends JpaRepository<Owner, Integer> {
 	 */
 	Page<Owner> findByLastNameStartingWith(String lastName, Pageable pageable);
 
+	/**
+	 * Retrieve {@link OwnerSummary summaries} of the owners whose last name <i>starts</i>
+	 * with the given name, ordered by last name and id. Each row, including the names of
+	 * the owner's pets, is built by the query itself so no entity is loaded. The total
+	 * number of matches is not counted; see {@link #countByLastNameStartingWith(String)}.
+	 * @param lastName Value to search for
+	 * @param pageable the page to retrieve
+	 * @return a slice of matching {@link OwnerSummary summaries}
+	 */
+	@Query(value = """
+			SELECT new org.springframework.samples.petclinic.owner.OwnerSummary(owner.id, owner.firstName,
+				owner.lastName, owner.address, owner.city, owner.telephone,
+				listagg(pet.name, ', ') WITHIN GROUP (ORDER BY pet.name))
+			FROM Owner owner LEFT JOIN owner.pets pet
+			WHERE owner.lastName LIKE :lastName%
+			GROUP BY owner.id, owner.firstName, owner.lastName, owner.address, owner.city, owner.telephone
+			ORDER BY owner.lastName, owner.id
+			""")
+	Slice<OwnerSummary> findSummariesByLastNameStartingWith(String lastName, Pageable pageable);
+
+	/**
+	 * Retrieve {@link OwnerSummary summaries} of the owners whose last name <i>starts</i>
+	 * with the given name and that sort after the given last name and id. This is the
+	 * keyset (seek) counterpart of
+	 * {@link #findSummariesByLastNameStartingWith(String, Pageable)}: the next page is
+	 * located through the index instead of skipping the preceding rows with an offset.
+	 * @param lastName Value to search for
+	 * @param afterLastName the last name of the last owner of the previous page
+	 * @param afterId the id of the last owner of the previous page
+	 * @param limit the maximum number of summaries to return
+	 * @return the matching {@link OwnerSummary summaries}
+	 */
+	@Query("""
+			SELECT new org.springframework.samples.petclinic.owner.OwnerSummary(owner.id, owner.firstName,
+				owner.lastName, owner.address, owner.city, owner.telephone,
+				listagg(pet.name, ', ') WITHIN GROUP (ORDER BY pet.name))
+			FROM Owner owner LEFT JOIN owner.pets pet
+			WHERE owner.lastName LIKE :lastName%
+				AND (owner.lastName > :afterLastName OR (owner.lastName = :afterLastName AND owner.id > :afterId))
+			GROUP BY owner.id, owner.firstName, owner.lastName, owner.address, owner.city, owner.telephone
+			ORDER BY owner.lastName, owner.id
+			""")
+	List<OwnerSummary> findSummariesByLastNameStartingWithAfter(String lastName, String afterLastName, int afterId,
+			Limit limit);
+
+	/**
+	 * Retrieve {@link OwnerSummary summaries} of the {@link Owner}s with the given ids.
+	 * @param ids the ids of the owners
+	 * @return the matching {@link OwnerSummary summaries}, in no particular order
+	 */
+	@Query("""
+			SELECT new org.springframework.samples.petclinic.owner.OwnerSummary(owner.id, owner.firstName,
+				owner.lastName, owner.address, owner.city, owner.telephone,
+				listagg(pet.name, ', ') WITHIN GROUP (ORDER BY pet.name))
+			FROM Owner owner LEFT JOIN owner.pets pet
+			WHERE owner.id IN :ids
+			GROUP BY owner.id, owner.firstName, owner.lastName, owner.address, owner.city, owner.telephone
+			""")
+	List<OwnerSummary> findSummariesByIdIn(Collection<Integer> ids);
+
+	/**
+	 * Retrieve the id and last name of every {@link Owner}, as used to build the
+	 * {@link OwnerLastNameIndex}.
+	 * @return pairs of owner id and last name
+	 */
+	@Query("SELECT owner.id, owner.lastName FROM Owner owner")
+	List<Object[]> findIdsAndLastNames();
+
+	/**
+	 * Count the {@link Owner}s whose last name <i>starts</i> with the given name.
+	 * @param lastName Value to search for
+	 * @return the number of matching owners
+	 */
+	long countByLastNameStartingWith(String lastName);
+
 	/**
 	 * Retrieve an {@link Owner} from the data store by id.
 	 * <p>
@@ -69,6 +147,16 @@ public interface OwnerRepository extends JpaRepository<Owner, Integer> {
 	 */
 	Optional<Owner> findById(@Nonnull Integer id);
 
+	/**
+	 * Retrieve an {@link Owner} from the data store by id, together with its {@link Pet}s
+	 * and pet types.
+	 * @param id the id to search for
+	 * @return an {@link Optional} containing the {@link Owner} if found, or an empty
+	 * {@link Optional} if not found.
+	 */
+	@EntityGraph(attributePaths = { "pets", "pets.type" })
+	Optional<Owner> findWithPetsById(Integer id);
+
 	/**
 	 * Returns all the owners from data store
 	 **/
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * Resolves the {@link Owner} of the current request, so that the several model attributes
+ * of {@link PetController} and {@link VisitController} share a single owner graph instead
+ * of each loading their own. The owner is loaded on first use with its pets and then
+ * reused until the end of the request. The visits are not part of the graph: they are
+ * read in windows through the {@link VisitRepository}.
+ */
+@Component
+@RequestScope
+class OwnerResolver {
+
+	private final OwnerRepository owners;
+
+	private Owner owner;
+
+	OwnerResolver(OwnerRepository owners) {
+		this.owners = owners;
+	}
+
+	/**
+	 * Retrieve the owner of the current request with its pets and their types.
+	 * @param ownerId the id of the owner
+	 * @return the owner
+	 * @throws IllegalArgumentException if there is no owner with that id
+	 */
+	Owner withPets(int ownerId) {
+		if (!isLoaded(ownerId)) {
+			this.owner = orElseThrow(this.owners.findWithPetsById(ownerId), ownerId);
+		}
+		return this.owner;
+	}
+
+	private boolean isLoaded(int ownerId) {
+		return this.owner != null && Integer.valueOf(ownerId).equals(this.owner.getId());
+	}
+
+	private static Owner orElseThrow(Optional<Owner> owner, int ownerId) {
+		return owner.orElseThrow(() -> new IllegalArgumentException(
+				"Owner not found with id: " + ownerId + ". Please ensure the ID is correct "));
+	}
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+/**
+ * Read-only, flat view of an {@link Owner} as shown in the owner search results. Built
+ * directly by the query, so no entity is hydrated nor attached to a persistence context.
+ *
+ * @param id the id of the owner
+ * @param firstName the first name of the owner
+ * @param lastName the last name of the owner
+ * @param address the address of the owner
+ * @param city the city of the owner
+ * @param telephone the telephone of the owner
+ * @param pets the names of the pets of the owner, comma separated and sorted, or
+ * {@code null} if the owner has no pets
+ */
+public record OwnerSummary(Integer id, String firstName, String lastName, String address, String city, String telephone,
+		String pets) {
+
+}
@@ -53,11 +53,29 @@ public class Pet extends NamedEntity {
 	@JoinColumn(name = "type_id")
 	private PetType type;
 
-	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	@JoinColumn(name = "pet_id")
 	@OrderBy("date ASC")
 	private final Set<Visit> visits = new LinkedHashSet<>();
 
+	/**
+	 * The owner whose pet index holds this pet, told when the id or name used as a key
+	 * changes.
+	 */
+	private transient Owner indexedBy;
+
+	@Override
+	public void setId(Integer id) {
+		super.setId(id);
+		keyChanged();
+	}
+
+	@Override
+	public void setName(String name) {
+		super.setName(name);
+		keyChanged();
+	}
+
 	public void setBirthDate(LocalDate birthDate) {
 		this.birthDate = birthDate;
 	}
@@ -82,4 +100,14 @@ public class Pet extends NamedEntity {
 		getVisits().add(visit);
 	}
 
+	void setIndexedBy(Owner owner) {
+		this.indexedBy = owner;
+	}
+
+	private void keyChanged() {
+		if (this.indexedBy != null) {
+			this.indexedBy.invalidatePetIndex();
+		}
+	}
+
 }
@@ -15,10 +15,9 @@
  */
 package org.springframework.samples.petclinic.owner;
 
-import java.time.LocalDate;
 import java.util.Collection;
-import java.util.Optional;
 
+import org.springframework.samples.petclinic.system.QueryBudget;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.ModelMap;
 import org.springframework.util.StringUtils;
@@ -48,21 +47,24 @@ class PetController {
 
 	private final OwnerRepository owners;
 
-	public PetController(OwnerRepository owners) {
+	private final OwnerResolver ownerResolver;
+
+	private final PetTypeCache petTypes;
+
+	public PetController(OwnerRepository owners, OwnerResolver ownerResolver, PetTypeCache petTypes) {
 		this.owners = owners;
+		this.ownerResolver = ownerResolver;
+		this.petTypes = petTypes;
 	}
 
 	@ModelAttribute("types")
 	public Collection<PetType> populatePetTypes() {
-		return this.owners.findPetTypes();
+		return this.petTypes.findAll();
 	}
 
 	@ModelAttribute("owner")
 	public Owner findOwner(@PathVariable("ownerId") int ownerId) {
-		Optional<Owner> optionalOwner = this.owners.findById(ownerId);
-		Owner owner = optionalOwner.orElseThrow(() -> new IllegalArgumentException(
-				"Owner not found with id: " + ownerId + ". Please ensure the ID is correct "));
-		return owner;
+		return this.ownerResolver.withPets(ownerId);
 	}
 
 	@ModelAttribute("pet")
@@ -73,10 +75,19 @@ class PetController {
 			return new Pet();
 		}
 
-		Optional<Owner> optionalOwner = this.owners.findById(ownerId);
-		Owner owner = optionalOwner.orElseThrow(() -> new IllegalArgumentException(
-				"Owner not found with id: " + ownerId + ". Please ensure the ID is correct "));
-		return owner.getPet(petId);
+		// bind the form into a copy, so that the owner's pet is left as it is until the
+		// update is valid and the duplicate name check does not find the edited pet
+		Pet pet = this.ownerResolver.withPets(ownerId).getPet(petId);
+		return (pet != null) ? copyOf(pet) : null;
+	}
+
+	private static Pet copyOf(Pet source) {
+		Pet pet = new Pet();
+		pet.setId(source.getId());
+		pet.setName(source.getName());
+		pet.setBirthDate(source.getBirthDate());
+		pet.setType(source.getType());
+		return pet;
 	}
 
 	@InitBinder("owner")
@@ -90,6 +101,7 @@ class PetController {
 	}
 
 	@GetMapping("/pets/new")
+	@QueryBudget(3)
 	public String initCreationForm(Owner owner, ModelMap model) {
 		Pet pet = new Pet();
 		owner.addPet(pet);
@@ -97,17 +109,13 @@ class PetController {
 	}
 
 	@PostMapping("/pets/new")
+	@QueryBudget(6)
 	public String processCreationForm(Owner owner, @Valid Pet pet, BindingResult result,
 			RedirectAttributes redirectAttributes) {
 
 		if (StringUtils.hasText(pet.getName()) && pet.isNew() && owner.getPet(pet.getName(), true) != null)
 			result.rejectValue("name", "duplicate", "already exists");
 
-		LocalDate currentDate = LocalDate.now();
-		if (pet.getBirthDate() != null && pet.getBirthDate().isAfter(currentDate)) {
-			result.rejectValue("birthDate", "typeMismatch.birthDate");
-		}
-
 		if (result.hasErrors()) {
 			return VIEWS_PETS_CREATE_OR_UPDATE_FORM;
 		}
@@ -119,11 +127,13 @@ class PetController {
 	}
 
 	@GetMapping("/pets/{petId}/edit")
+	@QueryBudget(2)
 	public String initUpdateForm() {
 		return VIEWS_PETS_CREATE_OR_UPDATE_FORM;
 	}
 
 	@PostMapping("/pets/{petId}/edit")
+	@QueryBudget(4)
 	public String processUpdateForm(Owner owner, @Valid Pet pet, BindingResult result,
 			RedirectAttributes redirectAttributes) {
 
@@ -137,11 +147,6 @@ class PetController {
 			}
 		}
 
-		LocalDate currentDate = LocalDate.now();
-		if (pet.getBirthDate() != null && pet.getBirthDate().isAfter(currentDate)) {
-			result.rejectValue("birthDate", "typeMismatch.birthDate");
-		}
-
 		if (result.hasErrors()) {
 			return VIEWS_PETS_CREATE_OR_UPDATE_FORM;
 		}
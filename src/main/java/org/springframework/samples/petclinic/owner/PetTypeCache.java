@@ -0,0 +1,115 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Near cache of the {@link PetType}s, which are reference data read by every pet form (to
+ * list the options) and by every pet form submission (to bind the selected type).
+ * <p>
+ * All pet types are loaded at once on first use and indexed by name and by id, so that
+ * both lookups are a map access instead of a query. The whole cache is dropped when a
+ * change to a pet type is committed, and loaded again on the next read.
+ * </p>
+ */
+@Component
+public class PetTypeCache {
+
+	private final PetTypeRepository petTypes;
+
+	private volatile PetTypes cached;
+
+	private long generation;
+
+	public PetTypeCache(PetTypeRepository petTypes) {
+		this.petTypes = petTypes;
+	}
+
+	/**
+	 * Retrieve all {@link PetType}s, ordered by name.
+	 * @return the pet types
+	 */
+	public List<PetType> findAll() {
+		return petTypes().all();
+	}
+
+	/**
+	 * Retrieve the {@link PetType} with the given name.
+	 * @param name the name of the pet type
+	 * @return the pet type, or {@code null} if there is none with that name
+	 */
+	public PetType findByName(String name) {
+		return petTypes().byName().get(name);
+	}
+
+	/**
+	 * Retrieve the {@link PetType} with the given id.
+	 * @param id the id of the pet type
+	 * @return the pet type, or {@code null} if there is none with that id
+	 */
+	public PetType findById(Integer id) {
+		return petTypes().byId().get(id);
+	}
+
+	/**
+	 * Drop the cached pet types, so that they are loaded again on the next read.
+	 */
+	public synchronized void evict() {
+		this.cached = null;
+		this.generation++;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	void onPetTypeChanged(PetTypeChangedEvent event) {
+		evict();
+	}
+
+	private PetTypes petTypes() {
+		PetTypes petTypes = this.cached;
+		if (petTypes == null) {
+			long loadedGeneration;
+			synchronized (this) {
+				loadedGeneration = this.generation;
+			}
+			petTypes = new PetTypes(this.petTypes.findPetTypes());
+			synchronized (this) {
+				// do not keep a result that might predate a concurrent eviction
+				if (this.generation == loadedGeneration) {
+					this.cached = petTypes;
+				}
+			}
+		}
+		return petTypes;
+	}
+
+	private record PetTypes(List<PetType> all, Map<String, PetType> byName, Map<Integer, PetType> byId) {
+
+		PetTypes(List<PetType> all) {
+			this(List.copyOf(all),
+					all.stream().collect(Collectors.toUnmodifiableMap(PetType::getName, Function.identity())),
+					all.stream().collect(Collectors.toUnmodifiableMap(PetType::getId, Function.identity())));
+		}
+
+	}
+
+}
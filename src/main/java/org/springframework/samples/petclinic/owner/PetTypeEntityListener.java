@@ -0,0 +1,44 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener publishing a {@link PetTypeChangedEvent} for every {@link PetType}
+ * written to the database, so that the {@link PetTypeCache} can drop its copy once the
+ * change is committed.
+ */
+class PetTypeEntityListener {
+
+	private final ApplicationEventPublisher events;
+
+	PetTypeEntityListener(ApplicationEventPublisher events) {
+		this.events = events;
+	}
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	void changed(PetType petType) {
+		this.events.publishEvent(new PetTypeChangedEvent(petType.getId()));
+	}
+
+}
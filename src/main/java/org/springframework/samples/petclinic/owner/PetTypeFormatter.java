@@ -19,7 +19,6 @@ import org.springframework.format.Formatter;
 import org.springframework.stereotype.Component;
 
 import java.text.ParseException;
-import java.util.Collection;
 import java.util.Locale;
 
 /**
@@ -35,10 +34,10 @@ import java.util.Locale;
 @Component
 public class PetTypeFormatter implements Formatter<PetType> {
 
-	private final OwnerRepository owners;
+	private final PetTypeCache petTypes;
 
-	public PetTypeFormatter(OwnerRepository owners) {
-		this.owners = owners;
+	public PetTypeFormatter(PetTypeCache petTypes) {
+		this.petTypes = petTypes;
 	}
 
 	@Override
@@ -48,13 +47,11 @@ public class PetTypeFormatter implements Formatter<PetType> {
 
 	@Override
 	public PetType parse(String text, Locale locale) throws ParseException {
-		Collection<PetType> findPetTypes = this.owners.findPetTypes();
-		for (PetType type : findPetTypes) {
-			if (type.getName().equals(text)) {
-				return type;
-			}
+		PetType type = this.petTypes.findByName(text);
+		if (type == null) {
+			throw new ParseException("type not found: " + text, 0);
 		}
-		throw new ParseException("type not found: " + text, 0);
+		return type;
 	}
 
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+/**
+ * Repository class for <code>PetType</code> domain objects. Reads issued by the web layer
+ * should go through the {@link PetTypeCache} instead, which keeps the pet types in
+ * memory.
+ *
+ * @author Ken Krebs
+ * @author Juergen Hoeller
+ * @author Sam Brannen
+ * @author Michael Isvy
+ */
+public interface PetTypeRepository extends Repository<PetType, Integer> {
+
+	/**
+	 * Retrieve all {@link PetType}s from the data store.
+	 * @return a Collection of {@link PetType}s.
+	 */
+	@Query("SELECT ptype FROM PetType ptype ORDER BY ptype.name")
+	List<PetType> findPetTypes();
+
+	/**
+	 * Save a {@link PetType} to the data store, either inserting or updating it.
+	 * @param petType the {@link PetType} to save
+	 * @return the saved {@link PetType}
+	 */
+	PetType save(PetType petType);
+
+	/**
+	 * Delete a {@link PetType} from the data store.
+	 * @param petType the {@link PetType} to delete
+	 */
+	void delete(PetType petType);
+
+}
@@ -15,17 +15,22 @@
  */
 package org.springframework.samples.petclinic.owner;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.samples.petclinic.system.QueryBudget;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.InitBinder;
-import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import jakarta.validation.Valid;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
@@ -41,10 +46,19 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 @Controller
 class VisitController {
 
-	private final OwnerRepository owners;
+	private static final String VIEWS_VISIT_CREATE_OR_UPDATE_FORM = "pets/createOrUpdateVisitForm";
 
-	public VisitController(OwnerRepository owners) {
-		this.owners = owners;
+	private final VisitRepository visits;
+
+	private final OwnerResolver ownerResolver;
+
+	private final int windowSize;
+
+	public VisitController(VisitRepository visits, OwnerResolver ownerResolver,
+			@Value("${petclinic.visits.window-size:5}") int windowSize) {
+		this.visits = visits;
+		this.ownerResolver = ownerResolver;
+		this.windowSize = windowSize;
 	}
 
 	@InitBinder
@@ -52,49 +66,75 @@ class VisitController {
 		dataBinder.setDisallowedFields("id");
 	}
 
+	@GetMapping("/owners/{ownerId}/pets/{petId}/visits/new")
+	@QueryBudget(2)
+	public String initNewVisitForm(@PathVariable("ownerId") int ownerId, @PathVariable("petId") int petId,
+			Map<String, Object> model) {
+		model.put("visit", new Visit());
+		populateForm(ownerId, petId, model);
+		return VIEWS_VISIT_CREATE_OR_UPDATE_FORM;
+	}
+
 	/**
-	 * Called before each and every @RequestMapping annotated method. 2 goals: - Make sure
-	 * we always have fresh data - Since we do not use the session scope, make sure that
-	 * Pet object always has an id (Even though id is not part of the form fields)
-	 * @param petId
-	 * @return Pet
+	 * Book a visit. The owner and its pets are only loaded to show the form again when
+	 * the visit is invalid: a valid visit is inserted with a single statement, whatever
+	 * the number of pets and visits of the owner, plus the fetch of the next block of ids
+	 * once every 50 visits with the {@code pooled-ids} profile.
 	 */
-	@ModelAttribute("visit")
-	public Visit loadPetWithVisit(@PathVariable("ownerId") int ownerId, @PathVariable("petId") int petId,
-			Map<String, Object> model) {
-		Optional<Owner> optionalOwner = owners.findById(ownerId);
-		Owner owner = optionalOwner.orElseThrow(() -> new IllegalArgumentException(
-				"Owner not found with id: " + ownerId + ". Please ensure the ID is correct "));
+	@PostMapping("/owners/{ownerId}/pets/{petId}/visits/new")
+	@QueryBudget(2)
+	public String processNewVisitForm(@PathVariable("ownerId") int ownerId, @PathVariable("petId") int petId,
+			@Valid Visit visit, BindingResult result, Map<String, Object> model,
+			RedirectAttributes redirectAttributes) {
+		if (result.hasErrors()) {
+			populateForm(ownerId, petId, model);
+			return VIEWS_VISIT_CREATE_OR_UPDATE_FORM;
+		}
 
-		Pet pet = owner.getPet(petId);
-		model.put("pet", pet);
-		model.put("owner", owner);
+		if (this.visits.insertVisit(ownerId, petId, visit.getDate(), visit.getDescription()) == 0) {
+			throw petNotFound(ownerId, petId);
+		}
+		redirectAttributes.addFlashAttribute("message", "Your visit has been booked");
+		return "redirect:/owners/{ownerId}";
+	}
 
-		Visit visit = new Visit();
-		pet.addVisit(visit);
-		return visit;
+	/**
+	 * Show a window of the visit history of a pet, most recent first, starting after the
+	 * given visit or with the most recent one.
+	 */
+	@GetMapping("/owners/{ownerId}/pets/{petId}/visits")
+	@QueryBudget(2)
+	public String showVisitHistory(@PathVariable("ownerId") int ownerId, @PathVariable("petId") int petId,
+			@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate beforeDate,
+			@RequestParam(required = false) Integer beforeId, Map<String, Object> model) {
+		populatePet(ownerId, petId, model);
+		Limit limit = Limit.of(this.windowSize + 1);
+		List<VisitSummary> rows = (beforeDate != null && beforeId != null)
+				? this.visits.findSummariesByPetIdBefore(petId, beforeDate, beforeId, limit)
+				: this.visits.findSummariesByPetId(petId, limit);
+		model.put("visits", VisitHistory.of(rows, this.windowSize));
+		return "pets/visitHistory";
 	}
 
-	// Spring MVC calls method loadPetWithVisit(...) before initNewVisitForm is
-	// called
-	@GetMapping("/owners/{ownerId}/pets/{petId}/visits/new")
-	public String initNewVisitForm() {
-		return "pets/createOrUpdateVisitForm";
+	private void populateForm(int ownerId, int petId, Map<String, Object> model) {
+		populatePet(ownerId, petId, model);
+		model.put("visits", VisitHistory.of(this.visits.findSummariesByPetId(petId, Limit.of(this.windowSize + 1)),
+				this.windowSize));
 	}
 
-	// Spring MVC calls method loadPetWithVisit(...) before processNewVisitForm is
-	// called
-	@PostMapping("/owners/{ownerId}/pets/{petId}/visits/new")
-	public String processNewVisitForm(@ModelAttribute Owner owner, @PathVariable int petId, @Valid Visit visit,
-			BindingResult result, RedirectAttributes redirectAttributes) {
-		if (result.hasErrors()) {
-			return "pets/createOrUpdateVisitForm";
+	private void populatePet(int ownerId, int petId, Map<String, Object> model) {
+		Owner owner = this.ownerResolver.withPets(ownerId);
+		Pet pet = owner.getPet(petId);
+		if (pet == null) {
+			throw petNotFound(ownerId, petId);
 		}
+		model.put("pet", pet);
+		model.put("owner", owner);
+	}
 
-		owner.addVisit(petId, visit);
-		this.owners.save(owner);
-		redirectAttributes.addFlashAttribute("message", "Your visit has been booked");
-		return "redirect:/owners/{ownerId}";
+	private static IllegalArgumentException petNotFound(int ownerId, int petId) {
+		return new IllegalArgumentException(
+				"Pet not found with id: " + petId + " for owner: " + ownerId + ". Please ensure the ID is correct ");
 	}
 
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A window of the visit history of a pet, most recent visit first, telling whether older
+ * visits remain. The next window starts after the {@link #last() last} visit of this one,
+ * using the {@code (date, id)} key of the visit rather than an offset.
+ *
+ * @param visits the visits of the window
+ * @param hasMore whether the pet has visits older than those of the window
+ */
+public record VisitHistory(List<VisitSummary> visits, boolean hasMore) {
+
+	/**
+	 * Create a window from the result of a query that fetched one row more than the size
+	 * of the window, to find out whether older visits remain.
+	 * @param rows up to {@code size + 1} visits, most recent first
+	 * @param size the size of the window
+	 * @return the window
+	 */
+	public static VisitHistory of(List<VisitSummary> rows, int size) {
+		return rows.size() > size ? new VisitHistory(rows.subList(0, size), true) : new VisitHistory(rows, false);
+	}
+
+	/**
+	 * Create a window per pet from the result of a query that fetched up to one row more
+	 * than the size of the window for each pet.
+	 * @param rows the visits, grouped by pet and most recent first
+	 * @param size the size of the windows
+	 * @return the windows, by pet id
+	 */
+	public static Map<Integer, VisitHistory> byPet(List<VisitSummary> rows, int size) {
+		return rows.stream()
+			.collect(Collectors.groupingBy(VisitSummary::petId, LinkedHashMap::new,
+					Collectors.collectingAndThen(Collectors.toList(), visits -> of(visits, size))));
+	}
+
+	/**
+	 * Return the oldest visit of the window, from which the next window starts.
+	 * @return the last visit, or {@code null} if the window is empty
+	 */
+	public VisitSummary last() {
+		return this.visits.isEmpty() ? null : this.visits.get(this.visits.size() - 1);
+	}
+
+}
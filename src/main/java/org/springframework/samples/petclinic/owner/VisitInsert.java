@@ -0,0 +1,38 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+
+/**
+ * Fragment of the {@link VisitRepository} writing visits directly, without going through
+ * the {@link Owner} aggregate.
+ */
+public interface VisitInsert {
+
+	/**
+	 * Insert a visit for the given pet, provided that the pet belongs to the given owner.
+	 * The ownership check and the insert are a single statement, looking the pet up by
+	 * its primary key.
+	 * @param ownerId the id of the owner of the pet
+	 * @param petId the id of the pet
+	 * @param date the date of the visit
+	 * @param description the description of the visit
+	 * @return the number of inserted rows: 1, or 0 if the owner has no such pet
+	 */
+	int insertVisit(int ownerId, int petId, LocalDate date, String description);
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.Generator;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+/**
+ * Native implementation of {@link VisitInsert}. The id of the visit is left to the
+ * identity column, unless the entities draw their ids from a sequence (see the
+ * {@code pooled-ids} profile): the id is then taken from the same generator as the
+ * {@link Visit} entities, so that both kinds of inserts never hand out the same id.
+ */
+class VisitInsertImpl implements VisitInsert {
+
+	private static final String INSERT = """
+			INSERT INTO visits (pet_id, visit_date, description)
+			SELECT pet.id, :date, :description FROM pets pet WHERE pet.id = :petId AND pet.owner_id = :ownerId
+			""";
+
+	private static final String INSERT_WITH_ID = """
+			INSERT INTO visits (id, pet_id, visit_date, description)
+			SELECT :id, pet.id, :date, :description FROM pets pet WHERE pet.id = :petId AND pet.owner_id = :ownerId
+			""";
+
+	private final EntityManager entityManager;
+
+	VisitInsertImpl(EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	@Transactional
+	public int insertVisit(int ownerId, int petId, LocalDate date, String description) {
+		SharedSessionContractImplementor session = this.entityManager.unwrap(SharedSessionContractImplementor.class);
+		Generator generator = session.getFactory()
+			.getMappingMetamodel()
+			.getEntityDescriptor(Visit.class)
+			.getGenerator();
+		Query insert;
+		if (generator instanceof BeforeExecutionGenerator beforeExecution && !generator.generatedOnExecution()) {
+			insert = this.entityManager.createNativeQuery(INSERT_WITH_ID)
+				.setParameter("id", beforeExecution.generate(session, null, null, EventType.INSERT));
+		}
+		else {
+			insert = this.entityManager.createNativeQuery(INSERT);
+		}
+		return insert.setParameter("date", date)
+			.setParameter("description", description)
+			.setParameter("petId", petId)
+			.setParameter("ownerId", ownerId)
+			.executeUpdate();
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+/**
+ * Repository class for <code>Visit</code> domain objects. Visits are only ever appended
+ * to the history of a pet, so they are written directly instead of through a save of the
+ * whole {@link Owner} aggregate, which would merge every pet and visit of the owner (see
+ * {@link VisitInsert}).
+ * <p>
+ * The history of a pet is read in windows of {@link VisitSummary summaries}, most recent
+ * first, following the {@code (pet_id, visit_date, id)} index: the cost of a window does
+ * not depend on how many visits the pet has had over the years.
+ * </p>
+ */
+public interface VisitRepository extends Repository<Visit, Integer>, VisitInsert {
+
+	/**
+	 * Retrieve the most recent visits of a pet.
+	 * @param petId the id of the pet
+	 * @param limit the maximum number of visits to return
+	 * @return the visits, most recent first
+	 */
+	@Query("""
+			SELECT new org.springframework.samples.petclinic.owner.VisitSummary(pet.id, visit.id, visit.date,
+				visit.description)
+			FROM Pet pet JOIN pet.visits visit
+			WHERE pet.id = :petId
+			ORDER BY visit.date DESC, visit.id DESC
+			""")
+	List<VisitSummary> findSummariesByPetId(int petId, Limit limit);
+
+	/**
+	 * Retrieve the visits of a pet that are older than the given visit. This is the
+	 * keyset (seek) continuation of {@link #findSummariesByPetId(int, Limit)}.
+	 * @param petId the id of the pet
+	 * @param beforeDate the date of the last visit of the previous window
+	 * @param beforeId the id of the last visit of the previous window
+	 * @param limit the maximum number of visits to return
+	 * @return the visits, most recent first
+	 */
+	@Query("""
+			SELECT new org.springframework.samples.petclinic.owner.VisitSummary(pet.id, visit.id, visit.date,
+				visit.description)
+			FROM Pet pet JOIN pet.visits visit
+			WHERE pet.id = :petId
+				AND (visit.date < :beforeDate OR (visit.date = :beforeDate AND visit.id < :beforeId))
+			ORDER BY visit.date DESC, visit.id DESC
+			""")
+	List<VisitSummary> findSummariesByPetIdBefore(int petId, LocalDate beforeDate, int beforeId, Limit limit);
+
+	/**
+	 * Retrieve the most recent visits of every pet of an owner, with a single query.
+	 * @param ownerId the id of the owner
+	 * @param perPet the maximum number of visits to return for each pet
+	 * @return the visits, grouped by pet and most recent first
+	 */
+	@Query("""
+			SELECT new org.springframework.samples.petclinic.owner.VisitSummary(recent.petId, recent.id, recent.date,
+				recent.description)
+			FROM (
+				SELECT pet.id AS petId, visit.id AS id, visit.date AS date, visit.description AS description,
+					row_number() OVER (PARTITION BY pet.id ORDER BY visit.date DESC, visit.id DESC) AS position
+				FROM Owner owner JOIN owner.pets pet JOIN pet.visits visit
+				WHERE owner.id = :ownerId
+			) recent
+			WHERE recent.position <= :perPet
+			ORDER BY recent.petId, recent.date DESC, recent.id DESC
+			""")
+	List<VisitSummary> findRecentSummariesByOwnerId(int ownerId, int perPet);
+
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only, flat view of a {@link Visit} as shown in the visit history of a pet. Built
+ * directly by the query, so no entity is hydrated nor attached to a persistence context.
+ *
+ * @param petId the id of the visited pet
+ * @param id the id of the visit
+ * @param date the date of the visit
+ * @param description the description of the visit
+ */
+public record VisitSummary(Integer petId, Integer id, LocalDate date, String description) {
+
+}
@@ -13,41 +13,140 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.springframework.samples.petclinic.system;
 
-import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.cache.interceptor.SimpleCacheResolver;
+import org.springframework.cache.support.NoOpCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-import javax.cache.configuration.MutableConfiguration;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 /**
- * Cache configuration intended for caches providing the JCache API. This configuration
- * creates the used cache for the application and enables statistics that become
- * accessible via JMX.
+ * Cache configuration for the Caffeine caches of the application. Each cache listed under
+ * {@code petclinic.cache.specs} is created upfront from its native Caffeine spec, so that
+ * it can be bounded ({@code maximumSize}, or {@code maximumWeight} where the weight of an
+ * entry is the number of elements it holds, see {@link Weighted}), expired
+ * ({@code expireAfterWrite}) and refreshed in the background ({@code refreshAfterWrite},
+ * which is ignored unless a {@link CacheReloader} is registered for that cache). The
+ * reloads run on the application task executor, which uses virtual threads when they are
+ * enabled, rather than on the common fork-join pool.
+ * <p>
+ * Statistics are always recorded, and published as Micrometer meters ({@code cache.gets},
+ * {@code cache.evictions}, ...) by the actuator, which binds every cache known at
+ * startup.
+ * </p>
  */
 @Configuration(proxyBeanMethods = false)
 @EnableCaching
+@EnableScheduling
+@EnableConfigurationProperties(CacheSpecs.class)
 class CacheConfiguration {
 
 	@Bean
-	public JCacheManagerCustomizer petclinicCacheConfigurationCustomizer() {
-		return cm -> cm.createCache("vets", cacheConfiguration());
+	public CacheManagerCustomizer<CaffeineCacheManager> petclinicCacheConfigurationCustomizer(CacheSpecs cacheSpecs,
+			ObjectProvider<CacheReloader> cacheReloaders,
+			@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) ObjectProvider<Executor> reloadExecutor) {
+		return cacheManager -> {
+			Map<String, CacheReloader> reloaders = cacheReloaders.orderedStream()
+				.collect(Collectors.toMap(CacheReloader::getCacheName, Function.identity()));
+			Executor executor = reloadExecutor.getIfAvailable();
+			cacheSpecs.specs()
+				.forEach((name, spec) -> cacheManager.registerCustomCache(name,
+						createCache(spec, reloaders.get(name), executor)));
+		};
+	}
+
+	@Bean
+	public CachingConfigurer petclinicCachingConfigurer(ObjectProvider<CacheManager> cacheManager) {
+		return new CachingConfigurer() {
+
+			@Override
+			public CacheResolver cacheResolver() {
+				return new ReloadAwareCacheResolver(cacheManager.getObject());
+			}
+
+		};
+	}
+
+	private static com.github.benmanes.caffeine.cache.Cache<Object, Object> createCache(String spec,
+			CacheReloader reloader, Executor executor) {
+		Map<String, String> options = Arrays.stream(spec.split(","))
+			.map(String::trim)
+			.collect(Collectors.toMap(option -> option.split("=", 2)[0], Function.identity()));
+		if (reloader == null) {
+			// nothing to reload the entries with: let them expire instead
+			options.remove("refreshAfterWrite");
+		}
+		Caffeine<Object, Object> builder = Caffeine.from(String.join(",", options.values()));
+		if (!options.containsKey("recordStats")) {
+			builder.recordStats();
+		}
+		if (options.containsKey("maximumWeight")) {
+			builder.weigher(CacheConfiguration::weigh);
+		}
+		if (reloader != null && executor != null) {
+			builder.executor(executor);
+		}
+		return (reloader != null) ? builder.build(reloader) : builder.build();
+	}
+
+	/**
+	 * Weigh a cache entry by the number of elements it holds, so that a cache bounded by
+	 * weight holds about the same number of entities whatever the page sizes.
+	 */
+	static int weigh(Object key, Object value) {
+		if (value instanceof Weighted weighted) {
+			return Math.max(1, weighted.weight());
+		}
+		if (value instanceof Collection<?> collection) {
+			return Math.max(1, collection.size());
+		}
+		if (value instanceof Slice<?> slice) {
+			return Math.max(1, slice.getNumberOfElements());
+		}
+		return 1;
 	}
 
 	/**
-	 * Create a simple configuration that enable statistics via the JCache programmatic
-	 * configuration API.
-	 * <p>
-	 * Within the configuration object that is provided by the JCache API standard, there
-	 * is only a very limited set of configuration options. The really relevant
-	 * configuration options (like the size limit) must be set via a configuration
-	 * mechanism that is provided by the selected JCache implementation.
+	 * Resolves the caches of the cache manager, except on threads running a
+	 * {@link CacheReloader}, which must reach the data store.
 	 */
-	private javax.cache.configuration.Configuration<Object, Object> cacheConfiguration() {
-		return new MutableConfiguration<>().setStatisticsEnabled(true);
+	private static class ReloadAwareCacheResolver extends SimpleCacheResolver {
+
+		ReloadAwareCacheResolver(CacheManager cacheManager) {
+			super(cacheManager);
+		}
+
+		@Override
+		public Collection<? extends Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
+			if (CacheReloader.isReloading()) {
+				return getCacheNames(context).stream().map(NoOpCache::new).toList();
+			}
+			return super.resolveCaches(context);
+		}
+
 	}
 
 }
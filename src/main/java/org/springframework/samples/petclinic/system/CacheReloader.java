@@ -0,0 +1,74 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+
+/**
+ * Recomputes the entries of one cache when they are due for a refresh, as configured by a
+ * {@code refreshAfterWrite} in the spec of that cache. Caffeine keeps serving the current
+ * value while the reload runs in the background.
+ * <p>
+ * Reloads usually call the very methods whose results are cached. The caches are bypassed
+ * for the duration of a reload, so that such calls reach the data store instead of
+ * returning the entry being refreshed.
+ * </p>
+ */
+public abstract class CacheReloader implements CacheLoader<Object, Object> {
+
+	private static final ThreadLocal<Boolean> reloading = new ThreadLocal<>();
+
+	private final String cacheName;
+
+	protected CacheReloader(String cacheName) {
+		this.cacheName = cacheName;
+	}
+
+	/**
+	 * Return the name of the cache whose entries this reloader computes.
+	 * @return the cache name
+	 */
+	public String getCacheName() {
+		return this.cacheName;
+	}
+
+	@Override
+	public final Object load(Object key) throws Exception {
+		reloading.set(Boolean.TRUE);
+		try {
+			return reload(key);
+		}
+		finally {
+			reloading.remove();
+		}
+	}
+
+	/**
+	 * Compute the value of the given key.
+	 * @param key the key of the entry to compute
+	 * @return the value, or {@code null} to remove the entry
+	 * @throws Exception if the value cannot be computed
+	 */
+	protected abstract Object reload(Object key) throws Exception;
+
+	/**
+	 * Whether the current thread is running a reload, and must thus bypass the caches.
+	 */
+	static boolean isReloading() {
+		return reloading.get() != null;
+	}
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Native Caffeine specs of the application caches, bound from the
+ * {@code petclinic.cache.specs.<cache name>} properties.
+ *
+ * @param specs the spec of each cache, by cache name, in the format of
+ * {@link com.github.benmanes.caffeine.cache.CaffeineSpec}
+ */
+@ConfigurationProperties("petclinic.cache")
+public record CacheSpecs(Map<String, String> specs) {
+
+	public CacheSpecs {
+		specs = (specs != null) ? Map.copyOf(specs) : Map.of();
+	}
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.method.HandlerMethod;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+
+/**
+ * Micrometer meters of the {@code @GetMapping} and {@code @PostMapping} handlers of the
+ * {@code owner}, {@code vet} and {@code system} packages, relating the latency of each
+ * request to the database work it did (see {@link RequestStatistics}):
+ * <ul>
+ * <li>{@value #REQUESTS}: a timer with a percentile histogram, tagged with the handler
+ * (e.g. {@code OwnerController.showOwner}) and the range of the number of statements,
+ * entities and collections of the request ({@code 0}, {@code 1}, {@code 2-5},
+ * {@code 6-20}, {@code 21-100} or {@code 101+}), which keeps the number of tag
+ * combinations small;</li>
+ * <li>{@value #STATEMENTS}, {@value #ENTITIES} and {@value #COLLECTIONS}: the exact
+ * counts per request, tagged with the handler.</li>
+ * </ul>
+ * {@link HandlerMetricsEndpoint} lists the handlers that do the worst on each of them.
+ */
+@Component
+@ConditionalOnProperty(name = "petclinic.handler-metrics.enabled", havingValue = "true")
+public class HandlerMetrics {
+
+	static final String REQUESTS = "petclinic.handler.requests";
+
+	static final String STATEMENTS = "petclinic.handler.statements";
+
+	static final String ENTITIES = "petclinic.handler.entities";
+
+	static final String COLLECTIONS = "petclinic.handler.collections";
+
+	private static final Set<String> PACKAGES = Set.of(Owner.class.getPackageName(), Vet.class.getPackageName(),
+			HandlerMetrics.class.getPackageName());
+
+	private static final int[] RANGES = { 0, 1, 5, 20, 100 };
+
+	private final MeterRegistry registry;
+
+	public HandlerMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * Whether the requests of the given handler are measured.
+	 */
+	public boolean isMeasured(HandlerMethod handler) {
+		return PACKAGES.contains(handler.getBeanType().getPackageName())
+				&& (handler.hasMethodAnnotation(GetMapping.class) || handler.hasMethodAnnotation(PostMapping.class));
+	}
+
+	/**
+	 * Record a request served by the given handler.
+	 * @param handler the handler
+	 * @param nanos how long the request took
+	 * @param statistics the database work of the request
+	 */
+	public void record(HandlerMethod handler, long nanos, RequestStatistics statistics) {
+		String name = name(handler);
+		Timer.builder(REQUESTS)
+			.description("Requests served by a handler")
+			.tag("handler", name)
+			.tag("statements", range(statistics.getStatements()))
+			.tag("entities", range(statistics.getEntities()))
+			.tag("collections", range(statistics.getCollections()))
+			.publishPercentileHistogram()
+			.minimumExpectedValue(Duration.ofMillis(1))
+			.maximumExpectedValue(Duration.ofSeconds(30))
+			.register(this.registry)
+			.record(nanos, TimeUnit.NANOSECONDS);
+		summary(STATEMENTS, name, "JDBC statements executed per request").record(statistics.getStatements());
+		summary(ENTITIES, name, "Entities loaded per request").record(statistics.getEntities());
+		summary(COLLECTIONS, name, "Collections initialized per request").record(statistics.getCollections());
+	}
+
+	/**
+	 * Summarize the requests recorded so far, one entry per handler.
+	 * @return the summaries, in no particular order
+	 */
+	public List<HandlerSummary> summaries() {
+		Map<String, List<Timer>> timers = new LinkedHashMap<>();
+		for (Timer timer : this.registry.find(REQUESTS).timers()) {
+			timers.computeIfAbsent(timer.getId().getTag("handler"), handler -> new ArrayList<>()).add(timer);
+		}
+		List<HandlerSummary> summaries = new ArrayList<>();
+		timers.forEach((handler, handlerTimers) -> {
+			long count = 0;
+			double total = 0;
+			double max = 0;
+			// the percentile histograms share their buckets, so their cumulative counts
+			// add up
+			Map<Double, Double> buckets = new TreeMap<>();
+			for (Timer timer : handlerTimers) {
+				HistogramSnapshot snapshot = timer.takeSnapshot();
+				count += snapshot.count();
+				total += snapshot.total(TimeUnit.MILLISECONDS);
+				max = Math.max(max, snapshot.max(TimeUnit.MILLISECONDS));
+				for (CountAtBucket bucket : snapshot.histogramCounts()) {
+					buckets.merge(bucket.bucket(TimeUnit.MILLISECONDS), bucket.count(), Double::sum);
+				}
+			}
+			DistributionSummary statements = this.registry.find(STATEMENTS).tag("handler", handler).summary();
+			DistributionSummary entities = this.registry.find(ENTITIES).tag("handler", handler).summary();
+			DistributionSummary collections = this.registry.find(COLLECTIONS).tag("handler", handler).summary();
+			summaries
+				.add(new HandlerSummary(handler, count, (count > 0) ? total / count : 0, percentile(buckets, 0.99, max),
+						max, mean(statements), max(statements), mean(entities), mean(collections)));
+		});
+		return summaries;
+	}
+
+	static String name(HandlerMethod handler) {
+		return handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+	}
+
+	static String range(int count) {
+		for (int i = 0; i < RANGES.length; i++) {
+			if (count <= RANGES[i]) {
+				int from = (i > 0) ? RANGES[i - 1] + 1 : 0;
+				return (from == RANGES[i]) ? String.valueOf(from) : from + "-" + RANGES[i];
+			}
+		}
+		return (RANGES[RANGES.length - 1] + 1) + "+";
+	}
+
+	private DistributionSummary summary(String name, String handler, String description) {
+		return DistributionSummary.builder(name)
+			.description(description)
+			.tag("handler", handler)
+			.register(this.registry);
+	}
+
+	/**
+	 * Return the smallest bucket holding the given share of the recent requests, or the
+	 * maximum if they all fall past the last bucket.
+	 */
+	private static double percentile(Map<Double, Double> buckets, double percentile, double max) {
+		double total = buckets.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+		for (Map.Entry<Double, Double> bucket : buckets.entrySet()) {
+			if (total > 0 && bucket.getValue() >= total * percentile) {
+				return Math.min(bucket.getKey(), max);
+			}
+		}
+		return max;
+	}
+
+	private static double mean(DistributionSummary summary) {
+		return (summary != null) ? summary.mean() : 0;
+	}
+
+	private static double max(DistributionSummary summary) {
+		return (summary != null) ? summary.max() : 0;
+	}
+
+	/**
+	 * What the requests of a handler cost.
+	 *
+	 * @param handler the handler, e.g. {@code OwnerController.showOwner}
+	 * @param requests the number of requests
+	 * @param meanMillis the mean latency
+	 * @param p99Millis the 99th percentile of the recent latencies, to the precision of
+	 * the histogram buckets
+	 * @param maxMillis the maximum recent latency
+	 * @param statementsPerRequest the mean number of JDBC statements per request
+	 * @param maxStatements the maximum recent number of JDBC statements of a request
+	 * @param entitiesPerRequest the mean number of entities loaded per request
+	 * @param collectionsPerRequest the mean number of collections initialized per request
+	 */
+	public record HandlerSummary(String handler, long requests, double meanMillis, double p99Millis, double maxMillis,
+			double statementsPerRequest, double maxStatements, double entitiesPerRequest,
+			double collectionsPerRequest) {
+
+		static Comparator<HandlerSummary> worstFirst(String sort) {
+			Comparator<HandlerSummary> comparator = switch (sort) {
+				case "latency" -> Comparator.comparingDouble(HandlerSummary::p99Millis)
+					.thenComparingDouble(HandlerSummary::meanMillis);
+				case "statements" -> Comparator.comparingDouble(HandlerSummary::statementsPerRequest);
+				case "entities" -> Comparator.comparingDouble(HandlerSummary::entitiesPerRequest);
+				case "collections" -> Comparator.comparingDouble(HandlerSummary::collectionsPerRequest);
+				default -> throw new IllegalArgumentException(
+						"Unknown sort " + sort + ", expected latency, statements, entities or collections");
+			};
+			return comparator.reversed();
+		}
+
+	}
+
+}
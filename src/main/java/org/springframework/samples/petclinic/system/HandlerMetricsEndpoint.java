@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.samples.petclinic.system.HandlerMetrics.HandlerSummary;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint ({@code /actuator/handlers}) listing the handlers whose requests are
+ * the slowest, or do the most database work, worst first: {@code ?sort=} {@code latency}
+ * (99th percentile, the default), {@code statements}, {@code entities} or
+ * {@code collections}, and {@code &limit=} the number of handlers (10 by default).
+ */
+@Component
+@Endpoint(id = "handlers")
+@ConditionalOnProperty(name = "petclinic.handler-metrics.enabled", havingValue = "true")
+public class HandlerMetricsEndpoint {
+
+	private static final int DEFAULT_LIMIT = 10;
+
+	private final HandlerMetrics metrics;
+
+	public HandlerMetricsEndpoint(HandlerMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@ReadOperation
+	public List<HandlerSummary> worstOffenders(@Nullable String sort, @Nullable Integer limit) {
+		try {
+			return this.metrics.summaries()
+				.stream()
+				.sorted(HandlerSummary.worstFirst((sort != null) ? sort : "latency"))
+				.limit((limit != null) ? limit : DEFAULT_LIMIT)
+				.toList();
+		}
+		catch (IllegalArgumentException ex) {
+			throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());
+		}
+	}
+
+}
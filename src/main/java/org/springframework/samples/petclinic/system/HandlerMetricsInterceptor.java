@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the database work of the requests of the {@link HandlerMetrics#isMeasured
+ * measured} handlers, from before the handler is invoked until the view is rendered,
+ * against the {@link QueryBudget} of the handler, and records it with the latency of the
+ * request.
+ */
+class HandlerMetricsInterceptor implements HandlerInterceptor {
+
+	private static final String START_ATTRIBUTE = HandlerMetricsInterceptor.class.getName() + ".start";
+
+	private final HandlerMetrics metrics;
+
+	HandlerMetricsInterceptor(HandlerMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (handler instanceof HandlerMethod handlerMethod && this.metrics.isMeasured(handlerMethod)) {
+			request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+			QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+			RequestStatistics.start(HandlerMetrics.name(handlerMethod), (budget != null) ? budget.value() : -1);
+		}
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		if (request.getAttribute(START_ATTRIBUTE) instanceof Long start) {
+			RequestStatistics statistics = RequestStatistics.current();
+			RequestStatistics.stop();
+			if (statistics != null) {
+				this.metrics.record((HandlerMethod) handler, System.nanoTime() - start, statistics);
+			}
+		}
+	}
+
+}
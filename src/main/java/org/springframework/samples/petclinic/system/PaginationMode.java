@@ -0,0 +1,68 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.util.function.LongSupplier;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+
+/**
+ * How the paginated lists of owners and vets find out about the total number of rows, as
+ * selected by the {@code petclinic.pagination.mode} property.
+ */
+public enum PaginationMode {
+
+	/**
+	 * Run a count query next to the page query, so that the list can show every page.
+	 */
+	EXACT,
+
+	/**
+	 * Reuse a cached count, evicted when the underlying data changes.
+	 */
+	CACHED,
+
+	/**
+	 * Do not count at all: only tell whether there is a next page, found by reading one
+	 * row more than the page size.
+	 */
+	SLICE;
+
+	/**
+	 * Turn a slice into a page, only asking for the total count when it cannot be deduced
+	 * from the slice itself.
+	 * @param slice the slice to turn into a page
+	 * @param total supplies the total number of rows
+	 * @return the page with the content of the slice
+	 */
+	public static <T> Page<T> toPage(Slice<T> slice, LongSupplier total) {
+		if (slice instanceof Page<T> page) {
+			return page;
+		}
+		if (slice.hasNext()) {
+			return new PageImpl<>(slice.getContent(), slice.getPageable(), total.getAsLong());
+		}
+		long offset = slice.getPageable().getOffset();
+		if (slice.hasContent() || offset == 0) {
+			return new PageImpl<>(slice.getContent(), slice.getPageable(), offset + slice.getNumberOfElements());
+		}
+		// beyond the last page, the offset tells nothing about the total
+		return new PageImpl<>(slice.getContent(), slice.getPageable(), total.getAsLong());
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Inspects the statements executed through the data source: counts them in the
+ * {@link RequestStatistics} of the current request and flags the suspicious ones as
+ * warnings.
+ * <ul>
+ * <li>A query whose shape (its SQL with the literals and the lists of an {@code IN}
+ * clause folded) is executed {@code petclinic.queries.repeated-threshold} times in a
+ * request is most likely the N+1 select of a lazy or eager association.</li>
+ * <li>A statement that takes longer than {@code petclinic.queries.slow-threshold} is
+ * slow.</li>
+ * <li>A request that executes more statements than the {@link QueryBudget} of its handler
+ * is over budget. In strict mode ({@code petclinic.queries.strict}), which the build
+ * turns on for the tests, the statement is not executed: a
+ * {@link QueryBudgetExceededException} is thrown instead.</li>
+ * </ul>
+ */
+class QueryInspector implements QueryExecutionListener {
+
+	private static final Log logger = LogFactory.getLog(QueryInspector.class);
+
+	private static final Pattern IN_LIST = Pattern.compile("in\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+
+	private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+	private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private final long slowThresholdMillis;
+
+	private final int repeatedThreshold;
+
+	private final boolean strict;
+
+	QueryInspector(Duration slowThreshold, int repeatedThreshold, boolean strict) {
+		this.slowThresholdMillis = slowThreshold.toMillis();
+		this.repeatedThreshold = repeatedThreshold;
+		this.strict = strict;
+	}
+
+	@Override
+	public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queries) {
+		RequestStatistics statistics = RequestStatistics.current();
+		if (statistics == null) {
+			return;
+		}
+		int statements = statistics.statementExecuted();
+		int budget = statistics.getBudget();
+		if (budget >= 0 && statements > budget) {
+			String message = statistics.getName() + " is over its budget of " + budget + " statements with: "
+					+ sql(queries);
+			if (this.strict) {
+				throw new QueryBudgetExceededException(message);
+			}
+			if (statements == budget + 1) {
+				logger.warn(message);
+			}
+		}
+		for (QueryInfo query : queries) {
+			String shape = shape(query.getQuery());
+			if (shape.startsWith("select") && statistics.shapeExecuted(shape) == this.repeatedThreshold) {
+				logger.warn(statistics.getName() + " executed the same query " + this.repeatedThreshold
+						+ " times, probably an N+1 select: " + shape);
+			}
+		}
+	}
+
+	@Override
+	public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queries) {
+		if (execInfo.getElapsedTime() >= this.slowThresholdMillis) {
+			RequestStatistics statistics = RequestStatistics.current();
+			logger.warn("Slow query (" + execInfo.getElapsedTime() + " ms"
+					+ ((statistics != null) ? " in " + statistics.getName() : "") + "): " + sql(queries));
+		}
+	}
+
+	/**
+	 * Return the shape of a query: its SQL in lower case, with the literals replaced by
+	 * {@code ?}, the lists of an {@code IN} clause by {@code (...)} and the whitespace
+	 * collapsed, so that the same query with other arguments has the same shape.
+	 */
+	static String shape(String sql) {
+		String shape = WHITESPACE.matcher(sql.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+		shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+		shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+		return IN_LIST.matcher(shape).replaceAll("in (...)");
+	}
+
+	private static String sql(List<QueryInfo> queries) {
+		return queries.isEmpty() ? "" : queries.get(0).getQuery();
+	}
+
+}
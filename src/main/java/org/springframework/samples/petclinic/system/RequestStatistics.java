@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the database work done by the current request: the JDBC statements executed, by
+ * query shape, the entities Hibernate loaded and the collections it initialized. The
+ * counters are bound to the thread serving the request between {@link #start} and
+ * {@link #stop()}; work done on other threads, such as cache reloads, is not counted.
+ *
+ * @see RequestStatisticsConfiguration
+ * @see QueryInspector
+ */
+public final class RequestStatistics {
+
+	private static final ThreadLocal<RequestStatistics> current = new ThreadLocal<>();
+
+	private final String name;
+
+	private final int budget;
+
+	private final Map<String, Integer> shapes = new HashMap<>();
+
+	private int statements;
+
+	private int entities;
+
+	private int collections;
+
+	private RequestStatistics(String name, int budget) {
+		this.name = name;
+		this.budget = budget;
+	}
+
+	/**
+	 * Start counting the work of the current thread.
+	 * @param name what the work is done for, e.g. the handler of the request
+	 * @param budget the maximum number of statements (see {@link QueryBudget}), or -1
+	 * @return the counters, which keep counting until {@link #stop()}
+	 */
+	public static RequestStatistics start(String name, int budget) {
+		RequestStatistics statistics = new RequestStatistics(name, budget);
+		current.set(statistics);
+		return statistics;
+	}
+
+	/**
+	 * Return the counters of the current thread, or {@code null} if it is not counting.
+	 */
+	public static RequestStatistics current() {
+		return current.get();
+	}
+
+	/**
+	 * Stop counting the work of the current thread.
+	 */
+	public static void stop() {
+		current.remove();
+	}
+
+	int statementExecuted() {
+		return ++this.statements;
+	}
+
+	int shapeExecuted(String shape) {
+		return this.shapes.merge(shape, 1, Integer::sum);
+	}
+
+	static void entityLoaded() {
+		RequestStatistics statistics = current.get();
+		if (statistics != null) {
+			statistics.entities++;
+		}
+	}
+
+	static void collectionInitialized() {
+		RequestStatistics statistics = current.get();
+		if (statistics != null) {
+			statistics.collections++;
+		}
+	}
+
+	/**
+	 * Return what the work is done for.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Return the maximum number of statements, or -1 if there is none.
+	 */
+	public int getBudget() {
+		return this.budget;
+	}
+
+	/**
+	 * Return the number of JDBC statements executed, a batch counting as one.
+	 */
+	public int getStatements() {
+		return this.statements;
+	}
+
+	/**
+	 * Return the number of entities loaded from the database.
+	 */
+	public int getEntities() {
+		return this.entities;
+	}
+
+	/**
+	 * Return the number of lazy collections initialized.
+	 */
+	public int getCollections() {
+		return this.collections;
+	}
+
+}
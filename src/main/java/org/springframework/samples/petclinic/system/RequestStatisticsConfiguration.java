@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Feeds the {@link RequestStatistics} of the current request: the data source is wrapped
+ * in a proxy that passes the executed statements to the {@link QueryInspector}, and
+ * Hibernate notifies the entities it loads and the collections it initializes. Only
+ * applied when {@code petclinic.handler-metrics.enabled} is {@code true}; tests of a
+ * slice that does not scan it, such as {@code @DataJpaTest}, can import it.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "petclinic.handler-metrics.enabled", havingValue = "true")
+public class RequestStatisticsConfiguration {
+
+	@Bean
+	static BeanPostProcessor requestStatisticsDataSourcePostProcessor(Environment environment) {
+		// read from the environment: placeholders are not resolved yet for post
+		// processors
+		QueryInspector inspector = new QueryInspector(
+				environment.getProperty("petclinic.queries.slow-threshold", Duration.class, Duration.ofMillis(500)),
+				environment.getProperty("petclinic.queries.repeated-threshold", Integer.class, 5),
+				environment.getProperty("petclinic.queries.strict", Boolean.class, false));
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+					return ProxyDataSourceBuilder.create(dataSource).name(beanName).listener(inspector).build();
+				}
+				return bean;
+			}
+
+		};
+	}
+
+	@Bean
+	HibernatePropertiesCustomizer requestStatisticsHibernatePropertiesCustomizer() {
+		return properties -> properties.put(JpaSettings.INTEGRATOR_PROVIDER,
+				(IntegratorProvider) () -> List.of(new RequestStatisticsIntegrator()));
+	}
+
+	private static final class RequestStatisticsIntegrator implements Integrator {
+
+		@Override
+		public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+				SessionFactoryImplementor sessionFactory) {
+			EventListenerRegistry listeners = sessionFactory.getServiceRegistry()
+				.getService(EventListenerRegistry.class);
+			listeners.appendListeners(EventType.POST_LOAD,
+					(PostLoadEventListener) event -> RequestStatistics.entityLoaded());
+			listeners.appendListeners(EventType.INIT_COLLECTION,
+					(InitializeCollectionEventListener) event -> RequestStatistics.collectionInitialized());
+		}
+
+		@Override
+		public void disintegrate(SessionFactoryImplementor sessionFactory,
+				SessionFactoryServiceRegistry serviceRegistry) {
+		}
+
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Watches for virtual threads pinned to their carrier thread, when the application runs
+ * on virtual threads ({@code spring.threads.virtual.enabled} on Java 21 or later).
+ * <p>
+ * A virtual thread that blocks inside a {@code synchronized} block, as some JDBC drivers
+ * do around their socket reads, keeps its carrier thread blocked too. Every pin longer
+ * than {@code petclinic.threads.pinned-threshold} is reported through the
+ * {@code jdk.VirtualThreadPinned} JFR event, and logged here with the frames that caused
+ * it. At startup, a warning is also logged if the connection pool is as large as the
+ * number of carrier threads, since pinned JDBC calls could then occupy every carrier:
+ * {@link VirtualThreadsConfiguration} keeps it smaller unless the pool size is set
+ * explicitly.
+ * </p>
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningGuard implements SmartLifecycle {
+
+	private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+	private static final int LOGGED_FRAMES = 8;
+
+	private static final Log logger = LogFactory.getLog(VirtualThreadPinningGuard.class);
+
+	private final DataSource dataSource;
+
+	private final Duration threshold;
+
+	private final AtomicLong pinnedCount = new AtomicLong();
+
+	private volatile RecordingStream recording;
+
+	public VirtualThreadPinningGuard(DataSource dataSource,
+			@Value("${petclinic.threads.pinned-threshold:20ms}") Duration threshold) {
+		this.dataSource = dataSource;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Return the number of pins longer than the threshold since startup.
+	 * @return the number of pinned virtual threads
+	 */
+	public long getPinnedCount() {
+		return this.pinnedCount.get();
+	}
+
+	@Override
+	public void start() {
+		checkPoolSize();
+		RecordingStream recording = new RecordingStream();
+		recording.enable(PINNED_EVENT).withThreshold(this.threshold).withStackTrace();
+		recording.onEvent(PINNED_EVENT, this::onPinned);
+		recording.startAsync();
+		this.recording = recording;
+	}
+
+	@Override
+	public void stop() {
+		RecordingStream recording = this.recording;
+		if (recording != null) {
+			recording.close();
+			this.recording = null;
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.recording != null;
+	}
+
+	private void onPinned(RecordedEvent event) {
+		this.pinnedCount.incrementAndGet();
+		if (logger.isWarnEnabled()) {
+			List<RecordedFrame> frames = (event.getStackTrace() != null) ? event.getStackTrace().getFrames()
+					: List.of();
+			String stack = frames.stream()
+				.limit(LOGGED_FRAMES)
+				.map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":"
+						+ frame.getLineNumber())
+				.collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+			logger.warn("Virtual thread pinned to its carrier for " + event.getDuration().toMillis() + " ms" + stack);
+		}
+	}
+
+	/**
+	 * Return the number of carrier threads of the virtual threads, one per core unless
+	 * {@code jdk.virtualThreadScheduler.parallelism} is set.
+	 * @return the number of carrier threads
+	 */
+	static int carrierThreads() {
+		return Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors());
+	}
+
+	private void checkPoolSize() {
+		int carriers = carrierThreads();
+		try {
+			if (this.dataSource.isWrapperFor(HikariDataSource.class)) {
+				int poolSize = this.dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+				if (poolSize >= carriers) {
+					logger.warn("The connection pool (" + poolSize + ") is not smaller than the number of carrier "
+							+ "threads (" + carriers + "): JDBC calls pinning their virtual thread could block "
+							+ "every carrier. Lower spring.datasource.hikari.maximum-pool-size or raise "
+							+ "-Djdk.virtualThreadScheduler.parallelism.");
+				}
+			}
+		}
+		catch (SQLException ex) {
+			// not a Hikari pool: nothing to check
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Sizes the connection pool for virtual threads ({@code spring.threads.virtual.enabled}
+ * on Java 21 or later): unless {@code spring.datasource.hikari.maximum-pool-size} is set,
+ * the pool gets one connection less than the number of carrier threads, so that JDBC
+ * calls pinning their virtual thread (see {@link VirtualThreadPinningGuard}) always leave
+ * a carrier free.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfiguration {
+
+	private static final String MAXIMUM_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+
+	@Bean
+	static BeanPostProcessor virtualThreadsDataSourcePostProcessor(Environment environment) {
+		// read from the environment: placeholders are not resolved yet for post
+		// processors
+		boolean sized = environment.containsProperty(MAXIMUM_POOL_SIZE);
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				if (bean instanceof HikariDataSource dataSource && !sized) {
+					dataSource.setMaximumPoolSize(Math.max(1, VirtualThreadPinningGuard.carrierThreads() - 1));
+				}
+				return bean;
+			}
+
+		};
+	}
+
+}
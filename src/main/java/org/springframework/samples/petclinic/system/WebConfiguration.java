@@ -1,5 +1,6 @@
 package org.springframework.samples.petclinic.system;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.LocaleResolver;
@@ -24,6 +25,12 @@ import java.util.Locale;
 @SuppressWarnings("unused")
 public class WebConfiguration implements WebMvcConfigurer {
 
+	private final ObjectProvider<HandlerMetrics> handlerMetrics;
+
+	public WebConfiguration(ObjectProvider<HandlerMetrics> handlerMetrics) {
+		this.handlerMetrics = handlerMetrics;
+	}
+
 	/**
 	 * Uses session storage to remember the user’s language setting across requests.
 	 * Defaults to English if nothing is specified.
@@ -49,12 +56,14 @@ public class WebConfiguration implements WebMvcConfigurer {
 	}
 
 	/**
-	 * Registers the locale change interceptor so it can run on each request.
+	 * Registers the locale change interceptor so it can run on each request, and the
+	 * handler metrics interceptor when they are enabled.
 	 * @param registry where interceptors are added
 	 */
 	@Override
 	public void addInterceptors(InterceptorRegistry registry) {
 		registry.addInterceptor(localeChangeInterceptor());
+		this.handlerMetrics.ifAvailable(metrics -> registry.addInterceptor(new HandlerMetricsInterceptor(metrics)));
 	}
 
 }
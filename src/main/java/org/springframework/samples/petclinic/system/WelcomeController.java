@@ -23,6 +23,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 class WelcomeController {
 
 	@GetMapping("/")
+	@QueryBudget(0)
 	public String welcome() {
 		return "welcome";
 	}
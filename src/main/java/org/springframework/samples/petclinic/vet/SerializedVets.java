@@ -0,0 +1,35 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import org.springframework.samples.petclinic.system.Weighted;
+
+/**
+ * The JSON representation of all the {@link Vets}, ready to be written as is. It weighs
+ * as much as the list of the vets in the "vets" cache.
+ *
+ * @param body the serialized vets
+ * @param eTag the strong entity tag of the body, quoted
+ * @param vetCount the number of serialized vets
+ */
+record SerializedVets(byte[] body, String eTag, int vetCount) implements Weighted {
+
+	@Override
+	public int weight() {
+		return this.vetCount;
+	}
+
+}
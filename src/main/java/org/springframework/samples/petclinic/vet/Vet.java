@@ -15,25 +15,40 @@
  */
 package org.springframework.samples.petclinic.vet;
 
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+import org.hibernate.annotations.BatchSize;
 import org.springframework.samples.petclinic.model.NamedEntity;
 import org.springframework.samples.petclinic.model.Person;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.xml.bind.annotation.XmlElement;
 
 /**
  * Simple JavaBean domain object representing a veterinarian.
+ * <p>
+ * The specialties are loaded in name order. {@link #getSpecialties()}, which the views
+ * and the JSON and XML representations of the vets call for every vet they render,
+ * returns an immutable snapshot of them that is only built again after
+ * {@link #addSpecialty(Specialty)}, so rendering a cached vet allocates nothing.
+ * </p>
+ * <p>
+ * The specialties of the vets loaded together, e.g. a page of vets, are fetched in
+ * batches of up to 100 vets by a single statement, rather than by one statement per vet.
+ * {@link VetRepository#findAll()} joins them to the vets instead.
+ * </p>
  *
  * @author Ken Krebs
  * @author Juergen Hoeller
@@ -42,25 +57,37 @@ import jakarta.xml.bind.annotation.XmlElement;
  */
 @Entity
 @Table(name = "vets")
+@EntityListeners(VetEntityListener.class)
 public class Vet extends Person {
 
 	@ManyToMany(fetch = FetchType.EAGER)
 	@JoinTable(name = "vet_specialties", joinColumns = @JoinColumn(name = "vet_id"),
 			inverseJoinColumns = @JoinColumn(name = "specialty_id"))
+	@OrderBy("name")
+	@BatchSize(size = 100)
 	private Set<Specialty> specialties;
 
+	@Transient
+	private volatile List<Specialty> sortedSpecialties;
+
 	protected Set<Specialty> getSpecialtiesInternal() {
 		if (this.specialties == null) {
-			this.specialties = new HashSet<>();
+			this.specialties = new LinkedHashSet<>();
 		}
 		return this.specialties;
 	}
 
 	@XmlElement
 	public List<Specialty> getSpecialties() {
-		return getSpecialtiesInternal().stream()
-			.sorted(Comparator.comparing(NamedEntity::getName))
-			.collect(Collectors.toList());
+		List<Specialty> sorted = this.sortedSpecialties;
+		if (sorted == null) {
+			// already in order when loaded, but not after addSpecialty
+			List<Specialty> specialties = new ArrayList<>(getSpecialtiesInternal());
+			specialties.sort(Comparator.comparing(NamedEntity::getName));
+			sorted = List.copyOf(specialties);
+			this.sortedSpecialties = sorted;
+		}
+		return sorted;
 	}
 
 	public int getNrOfSpecialties() {
@@ -69,6 +96,7 @@ public class Vet extends Person {
 
 	public void addSpecialty(Specialty specialty) {
 		getSpecialtiesInternal().add(specialty);
+		this.sortedSpecialties = null;
 	}
 
 }
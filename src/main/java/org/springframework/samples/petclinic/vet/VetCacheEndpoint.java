@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint ({@code /actuator/vetscache}) showing the version of the cached vets,
+ * and invalidating them on every node with a {@code DELETE}.
+ */
+@Component
+@Endpoint(id = "vetscache")
+public class VetCacheEndpoint {
+
+	private final VetCacheInvalidator invalidator;
+
+	public VetCacheEndpoint(VetCacheInvalidator invalidator) {
+		this.invalidator = invalidator;
+	}
+
+	@ReadOperation
+	public Map<String, Object> version() {
+		return Collections.singletonMap("version", this.invalidator.getVersion());
+	}
+
+	@DeleteOperation
+	public void invalidate() {
+		this.invalidator.invalidate();
+	}
+
+}
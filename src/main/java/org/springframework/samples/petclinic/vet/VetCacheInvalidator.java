@@ -0,0 +1,142 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the "vets" cache of every node in step with the database, through the version of
+ * the vets recorded in the {@code cache_versions} table.
+ * <p>
+ * The version is incremented, and the cache of this node cleared, once the transaction of
+ * any change to a vet or a specialty made through JPA has committed: once per
+ * transaction, however many vets it changed, and not before the change is visible to the
+ * reads that would cache the vets again. It can also be incremented by hand after a
+ * change made directly in the database:
+ * </p>
+ * <pre class="code">
+ * UPDATE cache_versions SET version = version + 1 WHERE name = 'vets';
+ * </pre>
+ * <p>
+ * Each node polls that single row (every 10 seconds by default, see the
+ * {@code petclinic.cache.vets.version-poll-interval} property) and clears its own cache
+ * when the version moved, so the cached vets can be kept for a long time.
+ * </p>
+ */
+@Component
+public class VetCacheInvalidator {
+
+	static final String CACHE_NAME = "vets";
+
+	private final JdbcClient jdbcClient;
+
+	private final CacheManager cacheManager;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private volatile Long version;
+
+	public VetCacheInvalidator(JdbcClient jdbcClient, CacheManager cacheManager,
+			PlatformTransactionManager transactionManager) {
+		this.jdbcClient = jdbcClient;
+		this.cacheManager = cacheManager;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		// runs after the commit of the changes, when their transaction cannot write
+		// anymore
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/**
+	 * Invalidate the cached vets of every node: increment the version of the vets, and
+	 * clear the cache of this node right away.
+	 */
+	public void invalidate() {
+		this.transactionTemplate.executeWithoutResult(status -> incrementVersion());
+		clearCache();
+	}
+
+	/**
+	 * Return the version of the vets last seen by this node.
+	 * @return the version, or {@code null} if it has not been read yet
+	 */
+	public Long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Read the version of the vets, and clear the cache of this node if it changed since
+	 * the last time.
+	 */
+	@Scheduled(fixedDelayString = "${petclinic.cache.vets.version-poll-interval:PT10S}")
+	public void pollVersion() {
+		Long current = this.jdbcClient.sql("SELECT version FROM cache_versions WHERE name = ?")
+			.param(CACHE_NAME)
+			.query(Long.class)
+			.optional()
+			.orElse(null);
+		if (current != null && !current.equals(this.version)) {
+			clearCache();
+			this.version = current;
+		}
+	}
+
+	// synchronous, as the changes are mostly flushed on commit, after the before-commit
+	// callbacks: only the first change of a transaction registers the invalidation
+	@EventListener
+	void onVetsChanged(VetsChangedEvent event) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			invalidate();
+		}
+		else if (TransactionSynchronizationManager.getSynchronizations()
+			.stream()
+			.noneMatch(InvalidateAfterCommit.class::isInstance)) {
+			TransactionSynchronizationManager.registerSynchronization(new InvalidateAfterCommit());
+		}
+	}
+
+	private void incrementVersion() {
+		this.jdbcClient.sql("UPDATE cache_versions SET version = version + 1 WHERE name = ?")
+			.param(CACHE_NAME)
+			.update();
+	}
+
+	private void clearCache() {
+		Cache cache = this.cacheManager.getCache(CACHE_NAME);
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	private final class InvalidateAfterCommit implements TransactionSynchronization {
+
+		@Override
+		public void afterCommit() {
+			invalidate();
+		}
+
+	}
+
+}
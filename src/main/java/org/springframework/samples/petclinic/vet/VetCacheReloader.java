@@ -0,0 +1,63 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.domain.Pageable;
+import org.springframework.samples.petclinic.system.CacheReloader;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reloads the entries of the "vets" cache in the background, mapping each key back to the
+ * {@link VetRepository} method that produced it.
+ */
+@Component
+class VetCacheReloader extends CacheReloader {
+
+	// resolved lazily: the cache manager, which needs this reloader, is itself needed to
+	// create the repository
+	private final ObjectProvider<VetRepository> vetRepository;
+
+	VetCacheReloader(ObjectProvider<VetRepository> vetRepository) {
+		super("vets");
+		this.vetRepository = vetRepository;
+	}
+
+	@Override
+	protected Object reload(Object key) {
+		VetRepository vets = this.vetRepository.getObject();
+		if (SimpleKey.EMPTY.equals(key)) {
+			return vets.findAll();
+		}
+		if (key instanceof Pageable pageable) {
+			return vets.findAll(pageable);
+		}
+		if (key instanceof List<?> list && list.size() == 2 && "slice".equals(list.get(0))
+				&& list.get(1) instanceof Pageable pageable) {
+			return vets.findBy(pageable);
+		}
+		if ("count".equals(key)) {
+			return vets.count();
+		}
+		// anything else, such as the serialized vets or the specialty index: drop the
+		// entry, it will be computed again on the next read
+		return null;
+	}
+
+}
@@ -15,17 +15,29 @@
  */
 package org.springframework.samples.petclinic.vet;
 
+import java.beans.PropertyEditorSupport;
 import java.util.List;
+import java.util.Locale;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.system.PaginationMode;
+import org.springframework.samples.petclinic.system.QueryBudget;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+
 /**
  * @author Juergen Hoeller
  * @author Mark Fisher
@@ -37,41 +49,92 @@ class VetController {
 
 	private final VetRepository vetRepository;
 
-	public VetController(VetRepository vetRepository) {
+	private final VetsSerializer vetsSerializer;
+
+	private final VetSpecialtyIndexer specialtyIndexer;
+
+	private final PaginationMode paginationMode;
+
+	public VetController(VetRepository vetRepository, VetsSerializer vetsSerializer,
+			VetSpecialtyIndexer specialtyIndexer,
+			@Value("${petclinic.pagination.mode:exact}") PaginationMode paginationMode) {
 		this.vetRepository = vetRepository;
+		this.vetsSerializer = vetsSerializer;
+		this.specialtyIndexer = specialtyIndexer;
+		this.paginationMode = paginationMode;
+	}
+
+	@InitBinder("match")
+	public void initMatchBinder(WebDataBinder dataBinder) {
+		// match=all or match=any
+		dataBinder.registerCustomEditor(VetSpecialtyIndex.Match.class, new PropertyEditorSupport() {
+			@Override
+			public void setAsText(String text) {
+				setValue(VetSpecialtyIndex.Match.valueOf(text.trim().toUpperCase(Locale.ROOT)));
+			}
+		});
 	}
 
 	@GetMapping("/vets.html")
+	@QueryBudget(3)
 	public String showVetList(@RequestParam(defaultValue = "1") int page, Model model) {
 		// Here we are returning an object of type 'Vets' rather than a collection of Vet
 		// objects so it is simpler for Object-Xml mapping
 		Vets vets = new Vets();
-		Page<Vet> paginated = findPaginated(page);
+		Slice<Vet> paginated = findPaginated(page);
 		vets.getVetList().addAll(paginated.toList());
 		return addPaginationModel(page, paginated, model);
 	}
 
-	private String addPaginationModel(int page, Page<Vet> paginated, Model model) {
+	private String addPaginationModel(int page, Slice<Vet> paginated, Model model) {
 		List<Vet> listVets = paginated.getContent();
 		model.addAttribute("currentPage", page);
-		model.addAttribute("totalPages", paginated.getTotalPages());
-		model.addAttribute("totalItems", paginated.getTotalElements());
+		if (paginated instanceof Page<Vet> pages) {
+			model.addAttribute("totalPages", pages.getTotalPages());
+			model.addAttribute("totalItems", pages.getTotalElements());
+		}
+		else {
+			model.addAttribute("hasNext", paginated.hasNext());
+		}
 		model.addAttribute("listVets", listVets);
 		return "vets/vetList";
 	}
 
-	private Page<Vet> findPaginated(int page) {
+	private Slice<Vet> findPaginated(int page) {
 		int pageSize = 5;
 		Pageable pageable = PageRequest.of(page - 1, pageSize);
-		return vetRepository.findAll(pageable);
+		return switch (this.paginationMode) {
+			case EXACT -> vetRepository.findAll(pageable);
+			case CACHED -> PaginationMode.toPage(vetRepository.findBy(pageable), vetRepository::count);
+			case SLICE -> vetRepository.findBy(pageable);
+		};
 	}
 
-	@GetMapping({ "/vets" })
-	public @ResponseBody Vets showResourcesVetList() {
-		// Here we are returning an object of type 'Vets' rather than a collection of Vet
-		// objects so it is simpler for JSon/Object mapping
+	/**
+	 * Write all the vets as JSON, straight from the bytes serialized once by the
+	 * {@link VetsSerializer}. Requests whose {@code If-None-Match} header matches the
+	 * entity tag of these bytes get a {@code 304 Not Modified} with no body.
+	 */
+	@GetMapping(value = "/vets", produces = MediaType.APPLICATION_JSON_VALUE)
+	@QueryBudget(1)
+	public ResponseEntity<byte[]> showResourcesVetList() throws JsonProcessingException {
+		SerializedVets vets = this.vetsSerializer.serialize();
+		return ResponseEntity.ok().eTag(vets.eTag()).contentType(MediaType.APPLICATION_JSON).body(vets.body());
+	}
+
+	/**
+	 * Find the vets with the given specialties, e.g.
+	 * {@code /vets?specialty=surgery&specialty=dentistry} for the vets who do both, or
+	 * with {@code &match=any} for the vets who do either. The search runs against the
+	 * {@link VetSpecialtyIndex} of the cached vets.
+	 */
+	@GetMapping(value = "/vets", produces = MediaType.APPLICATION_JSON_VALUE, params = "specialty")
+	@QueryBudget(1)
+	@ResponseBody
+	public Vets findVetsBySpecialty(@RequestParam List<String> specialty,
+			@RequestParam(defaultValue = "all") VetSpecialtyIndex.Match match) {
 		Vets vets = new Vets();
-		vets.getVetList().addAll(this.vetRepository.findAll());
+		vets.getVetList().addAll(this.specialtyIndexer.index().find(specialty, match));
 		return vets;
 	}
 
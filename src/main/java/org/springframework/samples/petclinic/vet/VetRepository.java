@@ -19,6 +19,8 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +31,9 @@ import java.util.Collection;
  * with Spring Data naming conventions so this interface can easily be extended for Spring
  * Data. See:
  * https://docs.spring.io/spring-data/jpa/docs/current/reference/html/#repositories.query-methods.query-creation
+ * <p>
+ * The results are cached in the "vets" cache, whose keys are mapped back to these methods
+ * by {@link VetCacheReloader} when the entries are refreshed.
  *
  * @author Ken Krebs
  * @author Juergen Hoeller
@@ -38,11 +43,13 @@ import java.util.Collection;
 public interface VetRepository extends Repository<Vet, Integer> {
 
 	/**
-	 * Retrieve all <code>Vet</code>s from the data store.
+	 * Retrieve all <code>Vet</code>s from the data store, ordered by id, together with
+	 * their specialties in the same statement.
 	 * @return a <code>Collection</code> of <code>Vet</code>s
 	 */
 	@Transactional(readOnly = true)
 	@Cacheable("vets")
+	@Query("SELECT vet FROM Vet vet LEFT JOIN FETCH vet.specialties ORDER BY vet.id")
 	Collection<Vet> findAll() throws DataAccessException;
 
 	/**
@@ -55,4 +62,42 @@ public interface VetRepository extends Repository<Vet, Integer> {
 	@Cacheable("vets")
 	Page<Vet> findAll(Pageable pageable) throws DataAccessException;
 
+	/**
+	 * Retrieve a slice of <code>Vet</code>s from the data store, without counting them.
+	 * @param pageable the slice to retrieve
+	 * @return a <code>Slice</code> of <code>Vet</code>s
+	 * @throws DataAccessException
+	 */
+	@Transactional(readOnly = true)
+	@Cacheable(cacheNames = "vets", key = "{ 'slice', #pageable }")
+	Slice<Vet> findBy(Pageable pageable) throws DataAccessException;
+
+	/**
+	 * Count the <code>Vet</code>s of the data store. The result is cached next to the
+	 * vets themselves.
+	 * @return the number of <code>Vet</code>s
+	 * @throws DataAccessException
+	 */
+	@Transactional(readOnly = true)
+	@Cacheable(cacheNames = "vets", key = "'count'")
+	long count() throws DataAccessException;
+
+	/**
+	 * Save a <code>Vet</code> to the data store, either inserting or updating it. Once
+	 * the change has committed, the {@link VetCacheInvalidator} evicts all the cached
+	 * vets and tells the other nodes.
+	 * @param vet the <code>Vet</code> to save
+	 * @return the saved <code>Vet</code>
+	 * @throws DataAccessException
+	 */
+	Vet save(Vet vet) throws DataAccessException;
+
+	/**
+	 * Delete a <code>Vet</code> from the data store. Once the deletion has committed, the
+	 * {@link VetCacheInvalidator} evicts all the cached vets and tells the other nodes.
+	 * @param vet the <code>Vet</code> to delete
+	 * @throws DataAccessException
+	 */
+	void delete(Vet vet) throws DataAccessException;
+
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Hibernate listener publishing a {@link VetsChangedEvent} when the specialties of a
+ * {@link Vet} change. Unlike the {@link VetEntityListener}, it sees the changes that only
+ * touch the {@code vet_specialties} table, for which JPA has no callback.
+ */
+@Component
+class VetSpecialtiesListener implements PostCollectionRecreateEventListener, PostCollectionUpdateEventListener,
+		PostCollectionRemoveEventListener {
+
+	private final ApplicationEventPublisher events;
+
+	VetSpecialtiesListener(EntityManagerFactory entityManagerFactory, ApplicationEventPublisher events) {
+		this.events = events;
+		EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+			.getServiceRegistry()
+			.requireService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+		registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+		registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+	}
+
+	@Override
+	public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+		changed(event);
+	}
+
+	@Override
+	public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+		changed(event);
+	}
+
+	@Override
+	public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+		changed(event);
+	}
+
+	private void changed(AbstractCollectionEvent event) {
+		if (event.getAffectedOwnerOrNull() instanceof Vet) {
+			this.events.publishEvent(new VetsChangedEvent());
+		}
+	}
+
+}
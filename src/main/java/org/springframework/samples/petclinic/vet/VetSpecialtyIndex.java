@@ -0,0 +1,137 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.samples.petclinic.system.Weighted;
+
+/**
+ * Immutable index of the {@link Vet}s by {@link Specialty}, answering the searches for
+ * the vets with all or any of a set of specialties without going through every vet.
+ * <p>
+ * The vets are numbered by their position in id order, and each specialty maps to the
+ * bitmap of the numbers of its vets. A search is then a few {@code and} or {@code or}
+ * operations on words of 64 vets, followed by a walk over the bits set in the result. The
+ * index is built by the {@link VetSpecialtyIndexer} and kept in the "vets" cache, so that
+ * it is dropped and built again along with the vets themselves.
+ * </p>
+ */
+final class VetSpecialtyIndex implements Weighted {
+
+	/**
+	 * How the specialties of a search are combined.
+	 */
+	enum Match {
+
+		/** The vets with every specialty. */
+		ALL,
+
+		/** The vets with at least one of the specialties. */
+		ANY
+
+	}
+
+	private static final BitSet NONE = new BitSet();
+
+	private final Vet[] vets;
+
+	private final Map<String, BitSet> vetsBySpecialty;
+
+	private VetSpecialtyIndex(Vet[] vets, Map<String, BitSet> vetsBySpecialty) {
+		this.vets = vets;
+		this.vetsBySpecialty = vetsBySpecialty;
+	}
+
+	/**
+	 * Index the given vets by specialty.
+	 * @param vets the vets, with their specialties
+	 * @return the index
+	 */
+	static VetSpecialtyIndex of(Collection<Vet> vets) {
+		Vet[] sorted = vets.toArray(new Vet[0]);
+		// id order, as the result of a search
+		Arrays.sort(sorted, Comparator.comparing(Vet::getId));
+		Map<String, BitSet> vetsBySpecialty = new HashMap<>();
+		for (int i = 0; i < sorted.length; i++) {
+			for (Specialty specialty : sorted[i].getSpecialties()) {
+				vetsBySpecialty.computeIfAbsent(normalize(specialty.getName()), name -> new BitSet(sorted.length))
+					.set(i);
+			}
+		}
+		return new VetSpecialtyIndex(sorted, vetsBySpecialty);
+	}
+
+	/**
+	 * Retrieve the vets with all or any of the given specialties, ignoring case.
+	 * @param specialties the names of the specialties
+	 * @param match whether the vets must have all the specialties or any of them
+	 * @return the matching vets ordered by id, or an empty list if no specialty is given
+	 */
+	List<Vet> find(Collection<String> specialties, Match match) {
+		BitSet found = null;
+		for (String specialty : specialties) {
+			BitSet vets = this.vetsBySpecialty.getOrDefault(normalize(specialty), NONE);
+			if (found == null) {
+				// the bitmaps of the index are shared, only ever work on a copy
+				found = (BitSet) vets.clone();
+			}
+			else if (match == Match.ALL) {
+				found.and(vets);
+			}
+			else {
+				found.or(vets);
+			}
+		}
+		if (found == null) {
+			return List.of();
+		}
+		List<Vet> result = new ArrayList<>(found.cardinality());
+		for (int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1)) {
+			result.add(this.vets[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Return the number of vets in the index.
+	 * @return the number of indexed vets
+	 */
+	int size() {
+		return this.vets.length;
+	}
+
+	/**
+	 * Weigh the index as the vets it holds, in the "vets" cache.
+	 */
+	@Override
+	public int weight() {
+		return size();
+	}
+
+	private static String normalize(String specialty) {
+		return specialty.trim().toLowerCase(Locale.ROOT);
+	}
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the {@link VetSpecialtyIndex} of all the vets once, and keeps it in the "vets"
+ * cache: every change to a vet or a specialty, on this node or another one, clears that
+ * cache and the next search indexes the vets again.
+ */
+@Component
+class VetSpecialtyIndexer {
+
+	private final VetRepository vetRepository;
+
+	VetSpecialtyIndexer(VetRepository vetRepository) {
+		this.vetRepository = vetRepository;
+	}
+
+	@Cacheable(cacheNames = "vets", key = "'specialty-index'")
+	public VetSpecialtyIndex index() {
+		return VetSpecialtyIndex.of(this.vetRepository.findAll());
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Serializes all the vets to JSON once, and keeps the bytes along with their entity tag
+ * in the "vets" cache, so that they are dropped together with the vets themselves.
+ */
+@Component
+class VetsSerializer {
+
+	private final VetRepository vetRepository;
+
+	private final ObjectMapper objectMapper;
+
+	VetsSerializer(VetRepository vetRepository, ObjectMapper objectMapper) {
+		this.vetRepository = vetRepository;
+		this.objectMapper = objectMapper;
+	}
+
+	@Cacheable(cacheNames = "vets", key = "'json'")
+	public SerializedVets serialize() throws JsonProcessingException {
+		// Here we are serializing an object of type 'Vets' rather than a collection of
+		// Vet
+		// objects so it is simpler for JSon/Object mapping
+		Vets vets = new Vets();
+		vets.getVetList().addAll(this.vetRepository.findAll());
+		byte[] body = this.objectMapper.writeValueAsBytes(vets);
+		return new SerializedVets(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"", vets.getVetList().size());
+	}
+
+}
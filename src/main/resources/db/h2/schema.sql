@@ -5,6 +5,8 @@ DROP TABLE visits IF EXISTS;
 DROP TABLE pets IF EXISTS;
 DROP TABLE types IF EXISTS;
 DROP TABLE owners IF EXISTS;
+DROP TABLE cache_versions IF EXISTS;
+DROP SEQUENCE petclinic_seq IF EXISTS;
 
 
 CREATE TABLE vets (
@@ -61,4 +63,12 @@ CREATE TABLE visits (
   description VARCHAR(255)
 );
 ALTER TABLE visits ADD CONSTRAINT fk_visits_pets FOREIGN KEY (pet_id) REFERENCES pets (id);
-CREATE INDEX visits_pet_id ON visits (pet_id);
+CREATE INDEX visits_pet_id_visit_date ON visits (pet_id, visit_date, id);
+
+CREATE TABLE cache_versions (
+  name    VARCHAR(30) PRIMARY KEY,
+  version BIGINT NOT NULL
+);
+
+-- Pooled ids of the "pooled-ids" profile, handed out 50 at a time above the sample data
+CREATE SEQUENCE petclinic_seq START WITH 1000 INCREMENT BY 50;
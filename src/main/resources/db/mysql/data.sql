@@ -51,3 +51,7 @@ INSERT IGNORE INTO visits VALUES (1, 7, '2010-03-04', 'rabies shot');
 INSERT IGNORE INTO visits VALUES (2, 8, '2011-03-04', 'rabies shot');
 INSERT IGNORE INTO visits VALUES (3, 8, '2009-06-04', 'neutered');
 INSERT IGNORE INTO visits VALUES (4, 7, '2008-09-04', 'spayed');
+
+INSERT IGNORE INTO cache_versions VALUES ('vets', 0);
+
+INSERT INTO petclinic_seq (next_val) SELECT 1000 FROM DUAL WHERE NOT EXISTS (SELECT * FROM petclinic_seq);
@@ -51,5 +51,17 @@ CREATE TABLE IF NOT EXISTS visits (
   pet_id INT(4) UNSIGNED,
   visit_date DATE,
   description VARCHAR(255),
+  INDEX(pet_id, visit_date, id),
   FOREIGN KEY (pet_id) REFERENCES pets(id)
 ) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS cache_versions (
+  name VARCHAR(30) NOT NULL PRIMARY KEY,
+  version BIGINT NOT NULL
+) engine=InnoDB;
+
+-- Pooled ids of the "pooled-ids" profile; MySQL has no sequences so Hibernate keeps the
+-- next value in a single row table
+CREATE TABLE IF NOT EXISTS petclinic_seq (
+  next_val BIGINT NOT NULL
+) engine=InnoDB;
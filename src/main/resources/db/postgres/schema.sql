@@ -49,4 +49,12 @@ CREATE TABLE IF NOT EXISTS visits (
   visit_date  DATE,
   description TEXT
 );
-CREATE INDEX ON visits (pet_id);
+CREATE INDEX ON visits (pet_id, visit_date, id);
+
+CREATE TABLE IF NOT EXISTS cache_versions (
+  name    TEXT PRIMARY KEY,
+  version BIGINT NOT NULL
+);
+
+-- Pooled ids of the "pooled-ids" profile, handed out 50 at a time above the sample data
+CREATE SEQUENCE IF NOT EXISTS petclinic_seq START WITH 1000 INCREMENT BY 50;
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerCounts;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.system.PaginationMode;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Integration test of the owner and vet lists in the {@link PaginationMode#SLICE slice}
+ * pagination mode, and of the cached owner counts backing the
+ * {@link PaginationMode#CACHED cached} mode.
+ */
+@SpringBootTest(
+		properties = { "petclinic.pagination.mode=slice", "spring.jpa.properties.hibernate.generate_statistics=true",
+				"logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN" })
+@AutoConfigureMockMvc
+@DirtiesContext
+class PaginationModeIntegrationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private OwnerCounts ownerCounts;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setup() {
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		this.statistics.clear();
+	}
+
+	@Test
+	void ownersListDoesNotCount() throws Exception {
+		mockMvc.perform(get("/owners").param("lastName", ""))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("hasNext", true))
+			.andExpect(model().attributeDoesNotExist("totalPages"));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void vetsListDoesNotCount() throws Exception {
+		mockMvc.perform(get("/vets.html").param("page", "2"))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("hasNext", false))
+			.andExpect(model().attributeDoesNotExist("totalPages"));
+		assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+	}
+
+	@Test
+	void ownerCountsAreCachedUntilAnOwnerChanges() {
+		long count = this.ownerCounts.countByLastNameStartingWith("");
+		assertThat(this.ownerCounts.countByLastNameStartingWith("")).isEqualTo(count);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+		Owner owner = new Owner();
+		owner.setFirstName("Sam");
+		owner.setLastName("Schultz");
+		owner.setAddress("4, Evans Street");
+		owner.setCity("Wollongong");
+		owner.setTelephone("4444444444");
+		this.owners.save(owner);
+
+		assertThat(this.ownerCounts.countByLastNameStartingWith("")).isEqualTo(count + 1);
+	}
+
+}
@@ -21,6 +21,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledInNativeImage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -34,8 +35,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.empty;
-import static org.hamcrest.Matchers.greaterThan;
-import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -62,12 +62,20 @@ class OwnerControllerTests {
 
 	private static final int TEST_OWNER_ID = 1;
 
+	private static final VisitSummary TEST_VISIT = new VisitSummary(1, 1, LocalDate.now(), "rabies shot");
+
 	@Autowired
 	private MockMvc mockMvc;
 
 	@MockitoBean
 	private OwnerRepository owners;
 
+	@MockitoBean
+	private OwnerCounts ownerCounts;
+
+	@MockitoBean
+	private VisitRepository visits;
+
 	private Owner george() {
 		Owner george = new Owner();
 		george.setId(TEST_OWNER_ID);
@@ -87,19 +95,23 @@ class OwnerControllerTests {
 		return george;
 	}
 
+	private OwnerSummary summary(Owner owner) {
+		return new OwnerSummary(owner.getId(), owner.getFirstName(), owner.getLastName(), owner.getAddress(),
+				owner.getCity(), owner.getTelephone(), "Max");
+	}
+
 	@BeforeEach
 	void setup() {
 
 		Owner george = george();
-		given(this.owners.findByLastNameStartingWith(eq("Franklin"), any(Pageable.class)))
-			.willReturn(new PageImpl<>(List.of(george)));
+		given(this.owners.findSummariesByLastNameStartingWith(eq("Franklin"), any(Pageable.class)))
+			.willReturn(new PageImpl<>(List.of(summary(george))));
 
 		given(this.owners.findAll(any(Pageable.class))).willReturn(new PageImpl<>(List.of(george)));
 
 		given(this.owners.findById(TEST_OWNER_ID)).willReturn(Optional.of(george));
-		Visit visit = new Visit();
-		visit.setDate(LocalDate.now());
-		george.getPet("Max").getVisits().add(visit);
+		given(this.owners.findWithPetsById(TEST_OWNER_ID)).willReturn(Optional.of(george));
+		given(this.visits.findRecentSummariesByOwnerId(TEST_OWNER_ID, 6)).willReturn(List.of(TEST_VISIT));
 
 	}
 
@@ -143,15 +155,33 @@ class OwnerControllerTests {
 
 	@Test
 	void testProcessFindFormSuccess() throws Exception {
-		Page<Owner> tasks = new PageImpl<>(List.of(george(), new Owner()));
-		when(this.owners.findByLastNameStartingWith(anyString(), any(Pageable.class))).thenReturn(tasks);
-		mockMvc.perform(get("/owners?page=1")).andExpect(status().isOk()).andExpect(view().name("owners/ownersList"));
+		Page<OwnerSummary> tasks = new PageImpl<>(List.of(summary(george()), summary(new Owner())));
+		when(this.owners.findSummariesByLastNameStartingWith(anyString(), any(Pageable.class))).thenReturn(tasks);
+		mockMvc.perform(get("/owners?page=1"))
+			.andExpect(status().isOk())
+			.andExpect(view().name("owners/ownersList"))
+			.andExpect(model().attribute("listOwners", hasSize(2)));
+	}
+
+	@Test
+	void testProcessFindFormAfterKey() throws Exception {
+		Owner other = new Owner();
+		other.setId(TEST_OWNER_ID + 1);
+		other.setLastName("Franklin");
+		when(this.owners.findSummariesByLastNameStartingWithAfter(eq(""), eq("Davis"), eq(4), any(Limit.class)))
+			.thenReturn(List.of(summary(george()), summary(other)));
+		when(this.owners.countByLastNameStartingWith("")).thenReturn(7L);
+		mockMvc.perform(get("/owners").param("page", "2").param("afterLastName", "Davis").param("afterId", "4"))
+			.andExpect(status().isOk())
+			.andExpect(view().name("owners/ownersList"))
+			.andExpect(model().attribute("listOwners", hasSize(2)))
+			.andExpect(model().attribute("totalItems", 7L));
 	}
 
 	@Test
 	void testProcessFindFormByLastName() throws Exception {
-		Page<Owner> tasks = new PageImpl<>(List.of(george()));
-		when(this.owners.findByLastNameStartingWith(eq("Franklin"), any(Pageable.class))).thenReturn(tasks);
+		Page<OwnerSummary> tasks = new PageImpl<>(List.of(summary(george())));
+		when(this.owners.findSummariesByLastNameStartingWith(eq("Franklin"), any(Pageable.class))).thenReturn(tasks);
 		mockMvc.perform(get("/owners?page=1").param("lastName", "Franklin"))
 			.andExpect(status().is3xxRedirection())
 			.andExpect(view().name("redirect:/owners/" + TEST_OWNER_ID));
@@ -159,8 +189,9 @@ class OwnerControllerTests {
 
 	@Test
 	void testProcessFindFormNoOwnersFound() throws Exception {
-		Page<Owner> tasks = new PageImpl<>(List.of());
-		when(this.owners.findByLastNameStartingWith(eq("Unknown Surname"), any(Pageable.class))).thenReturn(tasks);
+		Page<OwnerSummary> tasks = new PageImpl<>(List.of());
+		when(this.owners.findSummariesByLastNameStartingWith(eq("Unknown Surname"), any(Pageable.class)))
+			.thenReturn(tasks);
 		mockMvc.perform(get("/owners?page=1").param("lastName", "Unknown Surname"))
 			.andExpect(status().isOk())
 			.andExpect(model().attributeHasFieldErrors("owner", "lastName"))
@@ -225,8 +256,7 @@ class OwnerControllerTests {
 			.andExpect(model().attribute("owner", hasProperty("city", is("Madison"))))
 			.andExpect(model().attribute("owner", hasProperty("telephone", is("6085551023"))))
 			.andExpect(model().attribute("owner", hasProperty("pets", not(empty()))))
-			.andExpect(model().attribute("owner",
-					hasProperty("pets", hasItem(hasProperty("visits", hasSize(greaterThan(0)))))))
+			.andExpect(model().attribute("visits", hasEntry(1, new VisitHistory(List.of(TEST_VISIT), false))))
 			.andExpect(view().name("owners/ownerDetails"));
 	}
 
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.owner.ImportedOwner.ImportedPet;
+import org.springframework.samples.petclinic.owner.ImportedOwner.ImportedVisit;
+
+/**
+ * Test class for {@link OwnerCsvReader}
+ */
+class OwnerCsvReaderTests {
+
+	@Test
+	void shouldGroupConsecutiveRowsByOwnerAndPet() {
+		List<ImportedOwner> owners = read("""
+				firstName,lastName,address,city,telephone,petName,petBirthDate,petType,visitDate,visitDescription
+				George,Franklin,110 W. Liberty St.,Madison,6085551023,Leo,2010-09-07,cat,2013-01-01,rabies shot
+				George,Franklin,110 W. Liberty St.,Madison,6085551023,leo,,,2013-01-02,neutered
+				George,Franklin,110 W. Liberty St.,Madison,6085551023,Max,2012-09-04,dog,,
+
+				Betty,Davis,638 Cardinal Ave.,Sun Prairie,6085551749,,,,,
+				""");
+
+		assertThat(owners).hasSize(2);
+		ImportedOwner george = owners.get(0);
+		assertThat(george.position()).isEqualTo(2);
+		assertThat(george.lastName()).isEqualTo("Franklin");
+		assertThat(george.pets()).extracting(ImportedPet::name).containsExactly("Leo", "Max");
+		ImportedPet leo = george.pets().get(0);
+		assertThat(leo.type()).isEqualTo("cat");
+		assertThat(leo.visits()).containsExactly(new ImportedVisit(2, "2013-01-01", "rabies shot"),
+				new ImportedVisit(3, "2013-01-02", "neutered"));
+		assertThat(george.pets().get(1).visits()).isEmpty();
+		ImportedOwner betty = owners.get(1);
+		assertThat(betty.position()).isEqualTo(6);
+		assertThat(betty.pets()).isEmpty();
+	}
+
+	@Test
+	void shouldReadColumnsInAnyOrderWithQuotedFields() {
+		List<ImportedOwner> owners = read("telephone,city,address,lastName,firstName,visitDescription\n"
+				+ "6085551023,Madison,\"110 W. Liberty St., \"\"back door\"\"\",Franklin,George,\"first line\n"
+				+ "second line\"\n");
+
+		assertThat(owners).hasSize(1);
+		ImportedOwner george = owners.get(0);
+		assertThat(george.firstName()).isEqualTo("George");
+		assertThat(george.address()).isEqualTo("110 W. Liberty St., \"back door\"");
+		assertThat(george.pets()).hasSize(1);
+		assertThat(george.pets().get(0).name()).isNull();
+		assertThat(george.pets().get(0).visits().get(0).description()).isEqualTo("first line\nsecond line");
+	}
+
+	@Test
+	void shouldRejectHeaderWithoutOwnerColumns() {
+		assertThatIllegalArgumentException().isThrownBy(() -> read("firstName,lastName,petName\n"))
+			.withMessage("Missing CSV columns: address, city, telephone");
+	}
+
+	@Test
+	void shouldReadNothingFromEmptyInput() {
+		assertThat(read("")).isEmpty();
+	}
+
+	private static List<ImportedOwner> read(String csv) {
+		List<ImportedOwner> owners = new ArrayList<>();
+		new OwnerCsvReader(new StringReader(csv)).forEachRemaining(owners::add);
+		return owners;
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.owner.OwnerDataGenerator.GeneratedData;
+import org.springframework.test.annotation.DirtiesContext;
+
+/**
+ * Integration test of the synthetic data generator, run against its own database: once at
+ * startup through {@code petclinic.generator.owners}, then directly.
+ */
+@SpringBootTest(properties = "petclinic.generator.owners=6000")
+@DirtiesContext
+class OwnerDataGeneratorIntegrationTests {
+
+	private static final int SAMPLE_OWNERS = 10;
+
+	@Autowired
+	private OwnerDataGenerator generator;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void shouldGenerateOwnersAtStartupWithSkewedDistributions() {
+		assertThat(count("owners")).isGreaterThanOrEqualTo(SAMPLE_OWNERS + 6000);
+		assertThat(this.owners.countByLastNameStartingWith("Smith"))
+			.isGreaterThan(this.owners.countByLastNameStartingWith("Zimmer") * 10);
+		Integer dogs = this.jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM pets JOIN types ON types.id = pets.type_id WHERE types.name = 'dog'",
+				Integer.class);
+		Integer snakes = this.jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM pets JOIN types ON types.id = pets.type_id WHERE types.name = 'snake'",
+				Integer.class);
+		assertThat(dogs).isGreaterThan(snakes * 4);
+	}
+
+	@Test
+	void shouldAddGeneratedRowsAndKeepIdsAvailable() {
+		int owners = count("owners");
+		int pets = count("pets");
+		int visits = count("visits");
+
+		GeneratedData generated = this.generator.generate(OwnerDataGenerator.OWNERS_PER_CHUNK + 10, 7);
+
+		assertThat(generated.owners()).isEqualTo(OwnerDataGenerator.OWNERS_PER_CHUNK + 10);
+		assertThat(count("owners")).isEqualTo(owners + generated.owners());
+		assertThat(count("pets")).isEqualTo(pets + generated.pets());
+		assertThat(count("visits")).isEqualTo(visits + generated.visits());
+		assertThat(generated.pets()).isBetween((long) generated.owners(), generated.owners() * 2L);
+		assertThat(generated.visits()).isBetween(generated.pets() * 2, generated.pets() * 4);
+
+		Owner owner = new Owner();
+		owner.setFirstName("Ada");
+		owner.setLastName("Afterwards");
+		owner.setAddress("1 Main St.");
+		owner.setCity("Madison");
+		owner.setTelephone("6085550001");
+		this.owners.save(owner);
+		assertThat(owner.getId()).isGreaterThan(owners + generated.owners());
+		Integer lastVisit = this.jdbcTemplate.queryForObject("SELECT MAX(id) FROM visits", Integer.class);
+		assertThat(this.jdbcTemplate.queryForObject("CALL NEXT VALUE FOR petclinic_seq", Long.class))
+			.isGreaterThan(lastVisit);
+	}
+
+	private int count(String table) {
+		return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.owner.ImportedOwner.ImportedPet;
+import org.springframework.samples.petclinic.owner.ImportedOwner.ImportedVisit;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Integration test of the streaming export, reading the exported files back in the
+ * formats of the import.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OwnerExportIntegrationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void shouldExportOneOwnerPerLineAsNdjson() throws Exception {
+		String ndjson = mockMvc.perform(get("/owners/export.ndjson"))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+			.andExpect(header().string("Content-Disposition", "attachment; filename=\"owners.ndjson\""))
+			.andReturn()
+			.getResponse()
+			.getContentAsString();
+
+		assertThat(ndjson).endsWith("}\n");
+		List<ImportedOwner> owners = this.objectMapper.readerFor(ImportedOwner.class)
+			.<ImportedOwner>readValues(ndjson)
+			.readAll();
+		assertThat(owners).hasSize(ndjson.split("\n").length);
+		assertOwners(owners);
+	}
+
+	@Test
+	void shouldExportOneVisitPerRowAsCsv() throws Exception {
+		String csv = mockMvc.perform(get("/owners/export.csv"))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith("text/csv"))
+			.andReturn()
+			.getResponse()
+			.getContentAsString();
+
+		assertThat(csv).startsWith(OwnerExporter.CSV_HEADER + "\n");
+		assertThat(csv).contains("\n1,George,Franklin,110 W. Liberty St.,Madison,6085551023,1,Leo,2010-09-07,cat,,,\n");
+		List<ImportedOwner> owners = new ArrayList<>();
+		new OwnerCsvReader(new StringReader(csv)).forEachRemaining(owners::add);
+		assertOwners(owners);
+	}
+
+	private static void assertOwners(List<ImportedOwner> owners) {
+		assertThat(owners).hasSizeGreaterThanOrEqualTo(10);
+		ImportedOwner george = owners.get(0);
+		assertThat(george.firstName()).isEqualTo("George");
+		assertThat(george.lastName()).isEqualTo("Franklin");
+		assertThat(george.pets()).hasSize(1);
+		assertThat(george.pets().get(0).name()).isEqualTo("Leo");
+		assertThat(george.pets().get(0).type()).isEqualTo("cat");
+		assertThat(george.pets().get(0).visits()).isEmpty();
+		ImportedOwner jean = owners.get(5);
+		assertThat(jean.lastName()).isEqualTo("Coleman");
+		assertThat(jean.pets()).extracting(ImportedPet::name).containsExactly("Samantha", "Max");
+		assertThat(jean.pets().get(0).visits()).extracting(ImportedVisit::description)
+			.startsWith("rabies shot", "spayed");
+	}
+
+}
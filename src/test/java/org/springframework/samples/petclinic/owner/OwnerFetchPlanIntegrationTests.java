@@ -0,0 +1,158 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Integration test asserting the number of SQL statements issued by the owner, pet and
+ * visit endpoints, so that a change of fetch plan cannot silently reintroduce the loading
+ * of whole owner graphs.
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+		"logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN" })
+@AutoConfigureMockMvc
+class OwnerFetchPlanIntegrationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PetTypeCache petTypes;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setup() {
+		this.petTypes.findAll();
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		this.statistics.clear();
+	}
+
+	@Test
+	void showOwnerLoadsRecentVisitsWithOneQuery() throws Exception {
+		mockMvc.perform(get("/owners/{ownerId}", 6))
+			.andExpect(status().isOk())
+			.andExpect(view().name("owners/ownerDetails"));
+		// owner model attribute + owner with pets + recent visits of every pet
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+		assertThat(statistics.getCollectionFetchCount()).isZero();
+	}
+
+	@Test
+	void findOwnersDoesNotLoadEntities() throws Exception {
+		mockMvc.perform(get("/owners").param("lastName", ""))
+			.andExpect(status().isOk())
+			.andExpect(view().name("owners/ownersList"));
+		// page of summaries including pet names + count
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void findOwnersAfterKeyDoesNotLoadEntities() throws Exception {
+		mockMvc.perform(get("/owners").param("page", "2").param("afterLastName", "Davis").param("afterId", "4"))
+			.andExpect(status().isOk())
+			.andExpect(view().name("owners/ownersList"));
+		// seek page of summaries + count
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void findSingleOwnerDoesNotLoadEntities() throws Exception {
+		mockMvc.perform(get("/owners").param("lastName", "Franklin")).andExpect(status().is3xxRedirection());
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void editOwnerDoesNotLoadPets() throws Exception {
+		mockMvc.perform(get("/owners/{ownerId}/edit", 6)).andExpect(status().isOk());
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void editPetDoesNotLoadVisits() throws Exception {
+		mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/edit", 6, 7)).andExpect(status().isOk());
+		// owner with pets, shared by both model attributes; the pet types are cached
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getCollectionFetchCount()).isZero();
+	}
+
+	@Test
+	void updatePetLoadsOwnerOnce() throws Exception {
+		mockMvc
+			.perform(post("/owners/{ownerId}/pets/{petId}/edit", 6, 7).param("id", "7")
+				.param("name", "Samantha")
+				.param("type", "cat")
+				.param("birthDate", "2012-09-04"))
+			.andExpect(status().is3xxRedirection());
+		// owner with pets, shared by both model attributes, then the merge of the
+		// detached owner with its pets, cascading to the visits of its 2 pets; the pet
+		// types are cached
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+	}
+
+	@Test
+	void newVisitLoadsRecentVisitsOfThePet() throws Exception {
+		mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/visits/new", 6, 7)).andExpect(status().isOk());
+		// owner with pets + recent visits of the pet
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(statistics.getCollectionFetchCount()).isZero();
+	}
+
+	@Test
+	void visitHistoryLoadsOneWindow() throws Exception {
+		mockMvc
+			.perform(get("/owners/{ownerId}/pets/{petId}/visits", 6, 7).param("beforeDate", "2013-01-03")
+				.param("beforeId", "4"))
+			.andExpect(status().isOk())
+			.andExpect(view().name("pets/visitHistory"));
+		// owner with pets + window of visits of the pet
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(statistics.getCollectionFetchCount()).isZero();
+	}
+
+	@Test
+	void addVisitInsertsOneRow() throws Exception {
+		mockMvc.perform(post("/owners/{ownerId}/pets/{petId}/visits/new", 6, 8).param("description", "checkup"))
+			.andExpect(status().is3xxRedirection());
+		// insert of the visit, selecting the pet of the owner; nothing is loaded
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import jakarta.validation.ConstraintViolationException;
+
+/**
+ * Integration test of the bulk import of owners, run against its own database with small
+ * batches so that a batch holding an owner the database refuses has to be split, and a
+ * small report so that its limit is reached.
+ */
+@SpringBootTest(properties = { "petclinic.import.batch-size=2", "petclinic.import.max-reported-errors=5" })
+@AutoConfigureMockMvc
+@DirtiesContext
+class OwnerImportIntegrationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoSpyBean
+	private OwnerRepository owners;
+
+	@Test
+	void shouldImportCsvAndReportRejectedRows() throws Exception {
+		String csv = """
+				firstName,lastName,address,city,telephone,petName,petBirthDate,petType,visitDate,visitDescription
+				Ada,Csvimport,1 Main St.,Madison,6085550001,Tom,2020-01-01,cat,2021-01-01,checkup
+				Ada,Csvimport,1 Main St.,Madison,6085550001,Tom,,,2021-13-01,bad date
+				Ada,Csvimport,1 Main St.,Madison,6085550001,Rex,2020-01-01,dragon,,
+				Bob,Csvimport,2 Main St.,Madison,12345,,,,,
+				Cid,Csvimport,%s,Madison,6085550003,,,,,
+				Dan,Csvimport,4 Main St.,Madison,6085550004,Kit,2019-05-05,dog,,
+				""".formatted("x".repeat(300));
+
+		String report = mockMvc.perform(post("/owners/import").contentType("text/csv").content(csv))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.owners").value(2))
+			.andExpect(jsonPath("$.pets").value(2))
+			.andExpect(jsonPath("$.visits").value(1))
+			.andExpect(jsonPath("$.errors").value(4))
+			.andExpect(header().string("Location", containsString("/owners/import/")))
+			.andReturn()
+			.getResponse()
+			.getHeader("Location");
+
+		assertThat(owners.findByLastNameStartingWith("Csvimport", PageRequest.of(0, 10)))
+			.extracting(Owner::getFirstName)
+			.containsExactlyInAnyOrder("Ada", "Dan");
+		mockMvc.perform(get(report))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith("text/csv"))
+			.andExpect(content().string(containsString("position,field,message\n")))
+			.andExpect(content().string(containsString("3,\"date\",\"invalid date, expected yyyy-MM-dd: 2021-13-01\"")))
+			.andExpect(content().string(containsString("4,\"type\",\"unknown pet type: dragon\"")))
+			.andExpect(content().string(containsString("5,\"telephone\",\"Telephone must be a 10-digit number\"")))
+			.andExpect(content().string(containsString("6,\"owner\",")));
+	}
+
+	@Test
+	void shouldReportOwnersRefusedAtFlushAndContinue() throws Exception {
+		doThrow(new ConstraintViolationException("refused at flush", Set.of())).when(owners).saveAll(anyList());
+		doThrow(new ConstraintViolationException("refused at flush", Set.of())).when(owners)
+			.save(argThat((Owner owner) -> "Hal".equals(owner.getFirstName())));
+		String csv = """
+				firstName,lastName,address,city,telephone
+				Hal,Flushimport,8 Main St.,Madison,6085550008
+				Ivy,Flushimport,9 Main St.,Madison,6085550009
+				""";
+
+		mockMvc.perform(post("/owners/import").contentType("text/csv").content(csv))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.owners").value(1))
+			.andExpect(jsonPath("$.errors").value(1));
+		assertThat(owners.findByLastNameStartingWith("Flushimport", PageRequest.of(0, 10)))
+			.extracting(Owner::getFirstName)
+			.containsExactly("Ivy");
+	}
+
+	@Test
+	void shouldImportJson() throws Exception {
+		String json = """
+				[
+					{"firstName": "Eve", "lastName": "Jsonimport", "address": "5 Main St.", "city": "Madison",
+						"telephone": "6085550005", "pets": [{"name": "Bo", "birthDate": "2018-02-03", "type": "bird",
+							"visits": [{"date": "2022-02-02", "description": "wing check"}, {"description": "today"}]}]},
+					{"firstName": "Fay", "lastName": "Jsonimport", "city": "Madison", "telephone": "6085550006"}
+				]
+				""";
+
+		mockMvc.perform(post("/owners/import").contentType(MediaType.APPLICATION_JSON).content(json))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.owners").value(1))
+			.andExpect(jsonPath("$.pets").value(1))
+			.andExpect(jsonPath("$.visits").value(2))
+			.andExpect(jsonPath("$.errors").value(1));
+	}
+
+	@Test
+	void shouldRejectPetsTheFormRejects() throws Exception {
+		String json = """
+				[
+					{"firstName": "Joy", "lastName": "Petimport", "address": "10 Main St.", "city": "Madison",
+						"telephone": "6085550010", "pets": [{"name": "Max", "birthDate": "2018-02-03", "type": "dog"},
+							{"name": "max", "birthDate": "2019-02-03", "type": "cat"},
+							{"name": "Zed", "birthDate": "%s", "type": "cat"}]}
+				]
+				""".formatted(LocalDate.now().plusDays(1));
+
+		String report = mockMvc.perform(post("/owners/import").contentType(MediaType.APPLICATION_JSON).content(json))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.owners").value(1))
+			.andExpect(jsonPath("$.pets").value(1))
+			.andExpect(jsonPath("$.errors").value(2))
+			.andReturn()
+			.getResponse()
+			.getHeader("Location");
+
+		mockMvc.perform(get(report))
+			.andExpect(content().string(containsString("\"name\",\"already exists\"")))
+			.andExpect(content().string(containsString("\"birthDate\",\"is in the future\"")));
+	}
+
+	@Test
+	void shouldCountRejectedRowsBeyondReportLimit() throws Exception {
+		StringBuilder csv = new StringBuilder("firstName,lastName,address,city,telephone\n");
+		for (int i = 0; i < 7; i++) {
+			csv.append("Kim" + i + ",Limitimport,11 Main St.,Madison,12345\n");
+		}
+
+		String report = mockMvc.perform(post("/owners/import").contentType("text/csv").content(csv.toString()))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.owners").value(0))
+			.andExpect(jsonPath("$.errors").value(7))
+			.andReturn()
+			.getResponse()
+			.getHeader("Location");
+
+		String content = mockMvc.perform(get(report)).andReturn().getResponse().getContentAsString();
+		assertThat(content.lines().skip(1)).hasSize(5);
+	}
+
+	@Test
+	void shouldImportWithoutReportWhenNothingIsRejected() throws Exception {
+		mockMvc
+			.perform(post("/owners/import").contentType("text/csv")
+				.content("firstName,lastName,address,city,telephone\nGus,Cleanimport,7 Main St.,Madison,6085550007\n"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.owners").value(1))
+			.andExpect(jsonPath("$.reportId").doesNotExist())
+			.andExpect(header().doesNotExist("Location"));
+	}
+
+	@Test
+	void shouldRejectFileWithoutOwnerColumns() throws Exception {
+		mockMvc.perform(post("/owners/import").contentType("text/csv").content("name,telephone\n"))
+			.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void shouldNotFindUnknownReport() throws Exception {
+		mockMvc.perform(get("/owners/import/{reportId}/errors", "unknown")).andExpect(status().isNotFound());
+	}
+
+}
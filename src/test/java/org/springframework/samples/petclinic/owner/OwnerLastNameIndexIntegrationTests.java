@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Integration test for the owner search backed by the {@link OwnerLastNameIndex}.
+ */
+@SpringBootTest(properties = { "petclinic.owners.last-name-index.enabled=true",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN" })
+@AutoConfigureMockMvc
+@DirtiesContext
+class OwnerLastNameIndexIntegrationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private OwnerLastNameIndex index;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void shouldSearchWithoutLikeOrCountQueries() throws Exception {
+		Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		mockMvc.perform(get("/owners").param("lastName", "davis"))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("totalItems", 2L));
+		// only the summaries of the page, by id
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+		statistics.clear();
+		mockMvc.perform(get("/owners").param("lastName", "Daviss")).andExpect(status().isOk());
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void shouldFollowOwnerChanges() throws Exception {
+		Owner owner = new Owner();
+		owner.setFirstName("Sam");
+		owner.setLastName("Schultz");
+		owner.setAddress("4, Evans Street");
+		owner.setCity("Wollongong");
+		owner.setTelephone("4444444444");
+		this.owners.save(owner);
+		assertThat(this.index.count("Schultz")).isEqualTo(1);
+		mockMvc.perform(get("/owners").param("lastName", "Schultz"))
+			.andExpect(redirectedUrl("/owners/" + owner.getId()));
+
+		owner.setLastName("Shultz");
+		this.owners.save(owner);
+		assertThat(this.index.count("Schultz")).isZero();
+		assertThat(this.index.count("Shultz")).isEqualTo(1);
+
+		this.owners.delete(owner);
+		assertThat(this.index.count("Shultz")).isZero();
+	}
+
+	@Test
+	void shouldMatchLikeTheDatabase() {
+		for (String prefix : new String[] { "Da", "da", "Mc", "mc", "" }) {
+			assertThat(this.index.count(prefix)).as(prefix).isEqualTo(this.owners.countByLastNameStartingWith(prefix));
+			assertThat(this.index.findIds(prefix, PageRequest.of(0, 20)).getContent()).as(prefix)
+				.containsExactlyElementsOf(
+						this.owners.findSummariesByLastNameStartingWith(prefix, PageRequest.of(0, 20))
+							.map(OwnerSummary::id)
+							.getContent());
+		}
+	}
+
+}
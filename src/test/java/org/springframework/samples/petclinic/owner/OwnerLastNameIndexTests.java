@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Test class for {@link OwnerLastNameIndex}
+ */
+@ExtendWith(MockitoExtension.class)
+class OwnerLastNameIndexTests {
+
+	@Mock
+	private OwnerRepository owners;
+
+	private OwnerLastNameIndex index;
+
+	@BeforeEach
+	void setup() {
+		given(this.owners.findIdsAndLastNames()).willReturn(List.of(new Object[] { 1, "Franklin" },
+				new Object[] { 2, "Davis" }, new Object[] { 3, "Rodriquez" }, new Object[] { 4, "Davis" },
+				new Object[] { 5, "McTavish" }, new Object[] { 6, "Coleman" }, new Object[] { 7, "Black" }));
+		this.index = new OwnerLastNameIndex(this.owners, "h2");
+		this.index.afterPropertiesSet();
+	}
+
+	@Test
+	void shouldCountByPrefixIgnoringCaseLikeH2() {
+		assertThat(this.index.count("Davis")).isEqualTo(2);
+		assertThat(this.index.count("da")).isEqualTo(2);
+		assertThat(this.index.count("Daviss")).isZero();
+		assertThat(this.index.count("")).isEqualTo(7);
+		this.index.put(8, "Müller");
+		assertThat(this.index.count("mu")).isZero();
+	}
+
+	@Test
+	void shouldCountByPrefixMatchingCaseLikePostgreSql() {
+		OwnerLastNameIndex index = postgres();
+		assertThat(index.count("Da")).isEqualTo(2);
+		assertThat(index.count("da")).isZero();
+		assertThat(index.count("mc")).isZero();
+	}
+
+	@Test
+	void shouldCountByPrefixIgnoringCaseAndAccentsLikeMySql() {
+		OwnerLastNameIndex index = new OwnerLastNameIndex(this.owners, "mysql");
+		index.afterPropertiesSet();
+		index.put(8, "Müller");
+		assertThat(index.count("mc")).isEqualTo(1);
+		assertThat(index.count("DAVIS")).isEqualTo(2);
+		assertThat(index.count("mu")).isEqualTo(1);
+		assertThat(index.count("Mül")).isEqualTo(1);
+	}
+
+	@Test
+	void shouldOrderFoldedNamesByCodePoint() {
+		this.index.put(8, "de Gaulle");
+		assertThat(this.index.findIds("", PageRequest.of(0, 8)).getContent()).containsExactly(7, 6, 2, 4, 8, 1, 5, 3);
+
+		// upper case first, as the C collation of PostgreSQL but not a linguistic one
+		OwnerLastNameIndex index = postgres();
+		index.put(8, "de Gaulle");
+		assertThat(index.findIds("", PageRequest.of(0, 8)).getContent()).containsExactly(7, 6, 2, 4, 1, 5, 3, 8);
+	}
+
+	@Test
+	void shouldFindIdsOrderedByLastNameAndId() {
+		Page<Integer> ids = this.index.findIds("", PageRequest.of(0, 3));
+		assertThat(ids.getContent()).containsExactly(7, 6, 2);
+		assertThat(ids.getTotalElements()).isEqualTo(7);
+
+		ids = this.index.findIds("", PageRequest.of(2, 3));
+		assertThat(ids.getContent()).containsExactly(3);
+
+		ids = this.index.findIds("", PageRequest.of(3, 3));
+		assertThat(ids.getContent()).isEmpty();
+	}
+
+	@Test
+	void shouldAddAndMoveAndRemoveOwners() {
+		this.index.put(8, "Dawson");
+		assertThat(this.index.findIds("Da", PageRequest.of(0, 5)).getContent()).containsExactly(2, 4, 8);
+
+		this.index.put(2, "Smith");
+		assertThat(this.index.findIds("Da", PageRequest.of(0, 5)).getContent()).containsExactly(4, 8);
+		assertThat(this.index.count("Smith")).isEqualTo(1);
+
+		this.index.remove(4);
+		assertThat(this.index.findIds("Da", PageRequest.of(0, 5)).getContent()).containsExactly(8);
+		assertThat(this.index.size()).isEqualTo(7);
+	}
+
+	@Test
+	void shouldGrowBeyondInitialCapacity() {
+		for (int id = 100; id < 1100; id++) {
+			this.index.put(id, "Owner" + id);
+		}
+		assertThat(this.index.count("Owner")).isEqualTo(1000);
+		assertThat(this.index.count("Owner10")).isEqualTo(110);
+	}
+
+	private OwnerLastNameIndex postgres() {
+		OwnerLastNameIndex index = new OwnerLastNameIndex(this.owners, "postgres");
+		index.afterPropertiesSet();
+		return index;
+	}
+
+}
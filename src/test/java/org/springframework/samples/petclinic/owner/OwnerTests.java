@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Test class for the pet lookups of {@link Owner}, with enough pets for them to go
+ * through the pet index.
+ */
+class OwnerTests {
+
+	private Owner owner;
+
+	@BeforeEach
+	void setup() {
+		this.owner = new Owner();
+		for (int i = 1; i <= Owner.PET_INDEX_THRESHOLD; i++) {
+			Pet pet = new Pet();
+			pet.setName("Pet " + i);
+			this.owner.addPet(pet);
+			pet.setId(i);
+		}
+	}
+
+	@Test
+	void shouldFindPetsByIdAndName() {
+		assertThat(this.owner.getPet(3).getName()).isEqualTo("Pet 3");
+		assertThat(this.owner.getPet("PET 5").getId()).isEqualTo(5);
+		assertThat(this.owner.getPet(Owner.PET_INDEX_THRESHOLD + 1)).isNull();
+		assertThat(this.owner.getPet((Integer) null)).isNull();
+		assertThat(this.owner.getPet("Pet 0")).isNull();
+		assertThat(this.owner.getPet(null, false)).isNull();
+	}
+
+	@Test
+	void shouldFollowChangesOfIndexedPets() {
+		Pet pet = this.owner.getPet(3);
+		pet.setName("Renamed");
+		assertThat(this.owner.getPet("Pet 3")).isNull();
+		assertThat(this.owner.getPet("renamed")).isSameAs(pet);
+
+		Pet added = new Pet();
+		added.setName("Added");
+		this.owner.addPet(added);
+		assertThat(this.owner.getPet("Added", false)).isSameAs(added);
+		assertThat(this.owner.getPet("Added", true)).isNull();
+	}
+
+	@Test
+	void shouldFindPetsWhoseIdWasAssignedByThePersistenceProvider() {
+		Pet added = new Pet();
+		added.setName("Added");
+		this.owner.addPet(added);
+		assertThat(this.owner.getPet("Added", true)).isNull();
+
+		// Hibernate sets the generated id on the field, without calling the setter
+		ReflectionTestUtils.setField(added, "id", 100);
+		assertThat(this.owner.getPet(100)).isSameAs(added);
+		assertThat(this.owner.getPet("Added", true)).isSameAs(added);
+	}
+
+	@Test
+	void shouldFindFirstPetWithDuplicateName() {
+		Pet duplicate = new Pet();
+		duplicate.setName("pet 1");
+		this.owner.addPet(duplicate);
+		assertThat(this.owner.getPet("Pet 1").getId()).isEqualTo(1);
+	}
+
+}
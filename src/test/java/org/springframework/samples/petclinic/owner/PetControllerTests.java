@@ -32,7 +32,11 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
@@ -46,7 +50,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * @author Wick Dynex
  */
 @WebMvcTest(value = PetController.class,
-		includeFilters = @ComponentScan.Filter(value = PetTypeFormatter.class, type = FilterType.ASSIGNABLE_TYPE))
+		includeFilters = @ComponentScan.Filter(
+				value = { PetTypeFormatter.class, PetTypeCache.class, OwnerResolver.class },
+				type = FilterType.ASSIGNABLE_TYPE))
 @DisabledInNativeImage
 @DisabledInAotMode
 class PetControllerTests {
@@ -61,14 +67,20 @@ class PetControllerTests {
 	@MockitoBean
 	private OwnerRepository owners;
 
+	@MockitoBean
+	private PetTypeRepository petTypes;
+
+	private Owner owner;
+
 	@BeforeEach
 	void setup() {
 		PetType cat = new PetType();
 		cat.setId(3);
 		cat.setName("hamster");
-		given(this.owners.findPetTypes()).willReturn(List.of(cat));
+		given(this.petTypes.findPetTypes()).willReturn(List.of(cat));
 
 		Owner owner = new Owner();
+		this.owner = owner;
 		Pet pet = new Pet();
 		Pet dog = new Pet();
 		owner.addPet(pet);
@@ -77,7 +89,7 @@ class PetControllerTests {
 		dog.setId(TEST_PET_ID + 1);
 		pet.setName("petty");
 		dog.setName("doggy");
-		given(this.owners.findById(TEST_OWNER_ID)).willReturn(Optional.of(owner));
+		given(this.owners.findWithPetsById(TEST_OWNER_ID)).willReturn(Optional.of(owner));
 	}
 
 	@Test
@@ -174,6 +186,9 @@ class PetControllerTests {
 				.param("birthDate", "2015-02-12"))
 			.andExpect(status().is3xxRedirection())
 			.andExpect(view().name("redirect:/owners/{ownerId}"));
+		assertThat(owner.getPet(TEST_PET_ID).getName()).isEqualTo("Betty");
+		assertThat(owner.getPet(TEST_PET_ID).getBirthDate()).isEqualTo(LocalDate.of(2015, 2, 12));
+		verify(owners).save(owner);
 	}
 
 	@Nested
@@ -191,6 +206,20 @@ class PetControllerTests {
 				.andExpect(view().name("pets/createOrUpdatePetForm"));
 		}
 
+		@Test
+		void testProcessUpdateFormWithNameOfAnotherPet() throws Exception {
+			mockMvc
+				.perform(post("/owners/{ownerId}/pets/{petId}/edit", TEST_OWNER_ID, TEST_PET_ID).param("name", "doggy")
+					.param("type", "hamster")
+					.param("birthDate", "2015-02-12"))
+				.andExpect(model().attributeHasErrors("pet"))
+				.andExpect(model().attributeHasFieldErrorCode("pet", "name", "duplicate"))
+				.andExpect(view().name("pets/createOrUpdatePetForm"));
+			assertThat(owner.getPet(TEST_PET_ID).getName()).isEqualTo("petty");
+			assertThat(owner.getPet(TEST_PET_ID).getBirthDate()).isNull();
+			verify(owners, never()).save(any());
+		}
+
 		@Test
 		void testProcessUpdateFormWithBlankName() throws Exception {
 			mockMvc
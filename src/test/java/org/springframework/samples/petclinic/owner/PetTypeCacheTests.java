@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Test class for {@link PetTypeCache}
+ */
+@ExtendWith(MockitoExtension.class)
+class PetTypeCacheTests {
+
+	@Mock
+	private PetTypeRepository petTypes;
+
+	private PetTypeCache cache;
+
+	@BeforeEach
+	void setup() {
+		this.cache = new PetTypeCache(this.petTypes);
+		given(this.petTypes.findPetTypes()).willReturn(List.of(petType(2, "bird"), petType(1, "cat")));
+	}
+
+	@Test
+	void shouldLoadPetTypesOnce() {
+		assertThat(this.cache.findAll()).extracting(PetType::getName).containsExactly("bird", "cat");
+		assertThat(this.cache.findByName("cat").getId()).isEqualTo(1);
+		assertThat(this.cache.findById(2).getName()).isEqualTo("bird");
+		assertThat(this.cache.findByName("fish")).isNull();
+		verify(this.petTypes, times(1)).findPetTypes();
+	}
+
+	@Test
+	void shouldReloadPetTypesAfterChange() {
+		this.cache.findAll();
+		this.cache.onPetTypeChanged(new PetTypeChangedEvent(1));
+		this.cache.findAll();
+		verify(this.petTypes, times(2)).findPetTypes();
+	}
+
+	private static PetType petType(int id, String name) {
+		PetType petType = new PetType();
+		petType.setId(id);
+		petType.setName(name);
+		return petType;
+	}
+
+}
@@ -43,13 +43,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 class PetTypeFormatterTests {
 
 	@Mock
-	private OwnerRepository pets;
+	private PetTypeRepository pets;
 
 	private PetTypeFormatter petTypeFormatter;
 
 	@BeforeEach
 	void setup() {
-		this.petTypeFormatter = new PetTypeFormatter(pets);
+		this.petTypeFormatter = new PetTypeFormatter(new PetTypeCache(pets));
 	}
 
 	@Test
@@ -83,11 +83,13 @@ class PetTypeFormatterTests {
 		List<PetType> petTypes = new ArrayList<>();
 		petTypes.add(new PetType() {
 			{
+				setId(1);
 				setName("Dog");
 			}
 		});
 		petTypes.add(new PetType() {
 			{
+				setId(2);
 				setName("Bird");
 			}
 		});
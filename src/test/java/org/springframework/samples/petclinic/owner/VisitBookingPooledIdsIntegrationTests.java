@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration test of the booking of visits with the "pooled-ids" profile, in strict
+ * mode: the fetch of the next block of ids must fit in the budget of the request that
+ * triggers it.
+ */
+@SpringBootTest(properties = "petclinic.queries.strict=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("pooled-ids")
+@DirtiesContext
+class VisitBookingPooledIdsIntegrationTests {
+
+	private static final int ALLOCATION_SIZE = 50;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private VisitRepository visits;
+
+	@Test
+	void shouldBookVisitsAcrossBlocksOfIds() throws Exception {
+		// enough visits to fetch a block of ids at least once, wherever the sequence is
+		for (int i = 0; i <= ALLOCATION_SIZE; i++) {
+			mockMvc
+				.perform(post("/owners/{ownerId}/pets/{petId}/visits/new", 6, 7).param("date", "2024-03-04")
+					.param("description", "booking " + i))
+				.andExpect(redirectedUrl("/owners/6"));
+		}
+		assertThat(this.visits.findSummariesByPetId(7, Limit.of(ALLOCATION_SIZE + 10)))
+			.filteredOn(visit -> visit.description().startsWith("booking"))
+			.hasSize(ALLOCATION_SIZE + 1);
+	}
+
+}
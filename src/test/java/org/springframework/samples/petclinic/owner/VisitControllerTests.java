@@ -16,9 +16,17 @@
 
 package org.springframework.samples.petclinic.owner;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
@@ -28,10 +36,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledInNativeImage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
 import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
 import java.util.Optional;
 
 /**
@@ -40,7 +53,8 @@ import java.util.Optional;
  * @author Colin But
  * @author Wick Dynex
  */
-@WebMvcTest(VisitController.class)
+@WebMvcTest(value = VisitController.class,
+		includeFilters = @ComponentScan.Filter(value = OwnerResolver.class, type = FilterType.ASSIGNABLE_TYPE))
 @DisabledInNativeImage
 @DisabledInAotMode
 class VisitControllerTests {
@@ -55,13 +69,17 @@ class VisitControllerTests {
 	@MockitoBean
 	private OwnerRepository owners;
 
+	@MockitoBean
+	private VisitRepository visits;
+
 	@BeforeEach
 	void init() {
 		Owner owner = new Owner();
+		owner.setId(TEST_OWNER_ID);
 		Pet pet = new Pet();
 		owner.addPet(pet);
 		pet.setId(TEST_PET_ID);
-		given(this.owners.findById(TEST_OWNER_ID)).willReturn(Optional.of(owner));
+		given(this.owners.findWithPetsById(TEST_OWNER_ID)).willReturn(Optional.of(owner));
 	}
 
 	@Test
@@ -71,14 +89,45 @@ class VisitControllerTests {
 			.andExpect(view().name("pets/createOrUpdateVisitForm"));
 	}
 
+	@Test
+	void testShowVisitHistory() throws Exception {
+		VisitSummary visit = new VisitSummary(TEST_PET_ID, 3, LocalDate.of(2024, 3, 4), "rabies shot");
+		given(this.visits.findSummariesByPetIdBefore(eq(TEST_PET_ID), eq(LocalDate.of(2024, 5, 6)), eq(7), any()))
+			.willReturn(List.of(visit));
+		mockMvc
+			.perform(get("/owners/{ownerId}/pets/{petId}/visits", TEST_OWNER_ID, TEST_PET_ID)
+				.param("beforeDate", "2024-05-06")
+				.param("beforeId", "7"))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("visits", new VisitHistory(List.of(visit), false)))
+			.andExpect(view().name("pets/visitHistory"));
+	}
+
+	@Test
+	void testShowVisitHistoryWithOlderVisits() throws Exception {
+		List<VisitSummary> visits = IntStream.rangeClosed(1, 6)
+			.mapToObj(day -> new VisitSummary(TEST_PET_ID, 10 - day, LocalDate.of(2024, 3, 10 - day), "checkup"))
+			.toList();
+		given(this.visits.findSummariesByPetId(eq(TEST_PET_ID), any())).willReturn(visits);
+		mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/visits", TEST_OWNER_ID, TEST_PET_ID))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("visits", new VisitHistory(visits.subList(0, 5), true)))
+			.andExpect(
+					content().string(containsString("/owners/1/pets/1/visits?beforeDate=2024-03-05&amp;beforeId=5")));
+	}
+
 	@Test
 	void testProcessNewVisitFormSuccess() throws Exception {
+		given(this.visits.insertVisit(anyInt(), anyInt(), any(), anyString())).willReturn(1);
 		mockMvc
 			.perform(post("/owners/{ownerId}/pets/{petId}/visits/new", TEST_OWNER_ID, TEST_PET_ID)
 				.param("name", "George")
+				.param("date", "2024-03-04")
 				.param("description", "Visit Description"))
 			.andExpect(status().is3xxRedirection())
 			.andExpect(view().name("redirect:/owners/{ownerId}"));
+		verify(this.visits).insertVisit(TEST_OWNER_ID, TEST_PET_ID, LocalDate.of(2024, 3, 4), "Visit Description");
+		verify(this.owners, never()).findWithPetsById(TEST_OWNER_ID);
 	}
 
 	@Test
@@ -87,8 +136,10 @@ class VisitControllerTests {
 			.perform(post("/owners/{ownerId}/pets/{petId}/visits/new", TEST_OWNER_ID, TEST_PET_ID).param("name",
 					"George"))
 			.andExpect(model().attributeHasErrors("visit"))
+			.andExpect(model().attributeExists("owner", "pet"))
 			.andExpect(status().isOk())
 			.andExpect(view().name("pets/createOrUpdateVisitForm"));
+		verify(this.visits, never()).insertVisit(anyInt(), anyInt(), any(), any());
 	}
 
 }
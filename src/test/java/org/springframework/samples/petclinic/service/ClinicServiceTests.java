@@ -17,23 +17,39 @@
 package org.springframework.samples.petclinic.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.samples.petclinic.owner.Owner;
 import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.OwnerSummary;
 import org.springframework.samples.petclinic.owner.Pet;
 import org.springframework.samples.petclinic.owner.PetType;
+import org.springframework.samples.petclinic.owner.PetTypeRepository;
 import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.samples.petclinic.owner.VisitRepository;
+import org.springframework.samples.petclinic.owner.VisitSummary;
+import org.springframework.samples.petclinic.system.QueryBudget;
+import org.springframework.samples.petclinic.system.RequestStatistics;
+import org.springframework.samples.petclinic.system.QueryBudgetExtension;
+import org.springframework.samples.petclinic.system.RequestStatisticsConfiguration;
+import org.springframework.samples.petclinic.vet.Specialty;
 import org.springframework.samples.petclinic.vet.Vet;
 import org.springframework.samples.petclinic.vet.VetRepository;
 import org.springframework.transaction.annotation.Transactional;
@@ -70,17 +86,26 @@ import org.springframework.transaction.annotation.Transactional;
 // Ensure that if the mysql profile is active we connect to the real database:
 @AutoConfigureTestDatabase(replace = Replace.NONE)
 // @TestPropertySource("/application-postgres.properties")
+@Import(RequestStatisticsConfiguration.class)
+@ExtendWith(QueryBudgetExtension.class)
 class ClinicServiceTests {
 
 	@Autowired
 	protected OwnerRepository owners;
 
+	@Autowired
+	protected PetTypeRepository petTypes;
+
 	@Autowired
 	protected VetRepository vets;
 
+	@Autowired
+	protected VisitRepository visits;
+
 	Pageable pageable;
 
 	@Test
+	@QueryBudget(2)
 	void shouldFindOwnersByLastName() {
 		Page<Owner> owners = this.owners.findByLastNameStartingWith("Davis", pageable);
 		assertThat(owners).hasSize(2);
@@ -90,6 +115,31 @@ class ClinicServiceTests {
 	}
 
 	@Test
+	@QueryBudget(2)
+	void shouldFindOwnerSummariesByLastName() {
+		Slice<OwnerSummary> summaries = this.owners.findSummariesByLastNameStartingWith("Davis", PageRequest.of(0, 5));
+		assertThat(summaries).extracting(OwnerSummary::id).containsExactly(2, 4);
+		assertThat(summaries.getContent().get(0).pets()).isEqualTo("Basil");
+		assertThat(summaries.getContent().get(1).pets()).isEqualTo("Iggy");
+
+		summaries = this.owners.findSummariesByLastNameStartingWith("Coleman", PageRequest.of(0, 5));
+		assertThat(summaries).singleElement().extracting(OwnerSummary::pets).isEqualTo("Max, Samantha");
+	}
+
+	@Test
+	@QueryBudget(3)
+	void shouldFindOwnerSummariesAfterKey() {
+		Slice<OwnerSummary> firstPage = this.owners.findSummariesByLastNameStartingWith("", PageRequest.of(0, 3));
+		OwnerSummary last = firstPage.getContent().get(2);
+		List<OwnerSummary> nextPage = this.owners.findSummariesByLastNameStartingWithAfter("", last.lastName(),
+				last.id(), Limit.of(3));
+
+		Slice<OwnerSummary> offsetPage = this.owners.findSummariesByLastNameStartingWith("", PageRequest.of(1, 3));
+		assertThat(nextPage).isEqualTo(offsetPage.getContent());
+	}
+
+	@Test
+	@QueryBudget(2)
 	void shouldFindSingleOwnerWithPet() {
 		Optional<Owner> optionalOwner = this.owners.findById(1);
 		assertThat(optionalOwner).isPresent();
@@ -101,6 +151,7 @@ class ClinicServiceTests {
 	}
 
 	@Test
+	@QueryBudget(3)
 	@Transactional
 	void shouldInsertOwner() {
 		Page<Owner> owners = this.owners.findByLastNameStartingWith("Schultz", pageable);
@@ -120,6 +171,7 @@ class ClinicServiceTests {
 	}
 
 	@Test
+	@QueryBudget(1)
 	@Transactional
 	void shouldUpdateOwner() {
 		Optional<Owner> optionalOwner = this.owners.findById(1);
@@ -139,8 +191,9 @@ class ClinicServiceTests {
 	}
 
 	@Test
+	@QueryBudget(1)
 	void shouldFindAllPetTypes() {
-		Collection<PetType> petTypes = this.owners.findPetTypes();
+		Collection<PetType> petTypes = this.petTypes.findPetTypes();
 
 		PetType petType1 = EntityUtils.getById(petTypes, PetType.class, 1);
 		assertThat(petType1.getName()).isEqualTo("cat");
@@ -149,6 +202,7 @@ class ClinicServiceTests {
 	}
 
 	@Test
+	@QueryBudget(4)
 	@Transactional
 	void shouldInsertPetIntoDatabaseAndGenerateId() {
 		Optional<Owner> optionalOwner = this.owners.findById(6);
@@ -159,7 +213,7 @@ class ClinicServiceTests {
 
 		Pet pet = new Pet();
 		pet.setName("bowser");
-		Collection<PetType> types = this.owners.findPetTypes();
+		Collection<PetType> types = this.petTypes.findPetTypes();
 		pet.setType(EntityUtils.getById(types, PetType.class, 2));
 		pet.setBirthDate(LocalDate.now());
 		owner6.addPet(pet);
@@ -177,6 +231,7 @@ class ClinicServiceTests {
 	}
 
 	@Test
+	@QueryBudget(2)
 	@Transactional
 	void shouldUpdatePetName() {
 		Optional<Owner> optionalOwner = this.owners.findById(6);
@@ -198,6 +253,7 @@ class ClinicServiceTests {
 	}
 
 	@Test
+	@QueryBudget(1)
 	void shouldFindVets() {
 		Collection<Vet> vets = this.vets.findAll();
 
@@ -209,6 +265,19 @@ class ClinicServiceTests {
 	}
 
 	@Test
+	@QueryBudget(2)
+	void shouldFindVetsPageWithTheirSpecialties() {
+		Slice<Vet> vets = this.vets.findBy(PageRequest.of(0, 5));
+
+		assertThat(vets.getContent()).hasSize(5);
+		assertThat(vets.hasNext()).isTrue();
+		Vet vet = EntityUtils.getById(vets.getContent(), Vet.class, 3);
+		assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("dentistry", "surgery");
+		assertThat(RequestStatistics.current().getStatements()).isEqualTo(2);
+	}
+
+	@Test
+	@QueryBudget(4)
 	@Transactional
 	void shouldAddNewVisitForPet() {
 		Optional<Owner> optionalOwner = this.owners.findById(6);
@@ -229,6 +298,43 @@ class ClinicServiceTests {
 	}
 
 	@Test
+	@QueryBudget(3)
+	@Transactional
+	void shouldInsertVisitForPetOfOwner() {
+		assertThat(this.visits.insertVisit(6, 7, LocalDate.now(), "test")).isEqualTo(1);
+		assertThat(this.visits.insertVisit(1, 7, LocalDate.now(), "test")).isZero();
+
+		assertThat(this.visits.findSummariesByPetId(7, Limit.of(5))).hasSize(3)
+			.extracting(VisitSummary::description)
+			.contains("test");
+	}
+
+	@Test
+	@QueryBudget(5)
+	@Transactional
+	void shouldFindVisitHistoryInWindows() {
+		for (int day = 1; day <= 3; day++) {
+			this.visits.insertVisit(6, 7, LocalDate.of(2014, 1, day), "checkup " + day);
+		}
+
+		List<VisitSummary> window = this.visits.findSummariesByPetId(7, Limit.of(3));
+		assertThat(window).extracting(VisitSummary::description).containsExactly("checkup 3", "checkup 2", "checkup 1");
+
+		VisitSummary last = window.get(2);
+		window = this.visits.findSummariesByPetIdBefore(7, last.date(), last.id(), Limit.of(3));
+		assertThat(window).extracting(VisitSummary::description).containsExactly("spayed", "rabies shot");
+	}
+
+	@Test
+	@QueryBudget(1)
+	void shouldFindRecentVisitsOfEveryPet() {
+		List<VisitSummary> recent = this.visits.findRecentSummariesByOwnerId(6, 1);
+		assertThat(recent).extracting(VisitSummary::petId, VisitSummary::description)
+			.containsExactly(tuple(7, "spayed"), tuple(8, "neutered"));
+	}
+
+	@Test
+	@QueryBudget(3)
 	void shouldFindVisitsByPetId() {
 		Optional<Owner> optionalOwner = this.owners.findById(6);
 		assertThat(optionalOwner).isPresent();
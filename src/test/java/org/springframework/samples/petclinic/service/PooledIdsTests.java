@@ -0,0 +1,108 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.PetTypeRepository;
+import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.samples.petclinic.owner.VisitRepository;
+import org.springframework.samples.petclinic.owner.VisitSummary;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Integration test of the "pooled-ids" profile, where the entity ids are drawn from a
+ * pooled sequence so that the inserts are batched.
+ */
+@DataJpaTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+		"logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN" })
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("pooled-ids")
+class PooledIdsTests {
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private PetTypeRepository petTypes;
+
+	@Autowired
+	private VisitRepository visits;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setup() {
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void shouldBatchInsertsOfNewPets() {
+		Owner owner = this.owners.findWithPetsById(6).orElseThrow();
+		for (int i = 0; i < 10; i++) {
+			Pet pet = new Pet();
+			pet.setName("Puppy " + i);
+			pet.setBirthDate(LocalDate.now());
+			pet.setType(this.petTypes.findPetTypes().get(0));
+			owner.addPet(pet);
+		}
+		this.statistics.clear();
+
+		this.owners.saveAndFlush(owner);
+
+		// one value of the sequence for all the ids + one batch of inserts + one batch of
+		// updates of the owner_id join column
+		assertThat(this.statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+		assertThat(owner.getPets()).filteredOn(pet -> pet.getName().startsWith("Puppy"))
+			.hasSize(10)
+			.allSatisfy(pet -> assertThat(pet.getId()).isGreaterThan(13));
+	}
+
+	@Test
+	void shouldNotReuseIdsOfDirectlyInsertedVisits() {
+		assertThat(this.visits.insertVisit(6, 7, LocalDate.now(), "direct")).isEqualTo(1);
+		Owner owner = this.owners.findWithPetsById(6).orElseThrow();
+		Visit visit = new Visit();
+		visit.setDescription("through owner");
+		owner.addVisit(7, visit);
+		this.owners.saveAndFlush(owner);
+
+		List<VisitSummary> history = this.visits.findSummariesByPetId(7, Limit.of(10));
+		assertThat(history).extracting(VisitSummary::description).contains("direct", "through owner");
+		assertThat(history).extracting(VisitSummary::id).doesNotHaveDuplicates().allMatch(id -> id != null);
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Integration test of the {@link HandlerMetrics} and their actuator endpoint, run against
+ * its own meter registry.
+ */
+@SpringBootTest(classes = PetClinicApplication.class)
+@AutoConfigureMockMvc
+@DirtiesContext
+class HandlerMetricsIntegrationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Test
+	void shouldTimeHandlersWithTheirDatabaseWork() throws Exception {
+		mockMvc.perform(get("/owners/1")).andExpect(status().isOk());
+		mockMvc.perform(get("/owners/2")).andExpect(status().isOk());
+		mockMvc.perform(get("/")).andExpect(status().isOk());
+
+		Timer showOwner = registry.find(HandlerMetrics.REQUESTS).tag("handler", "OwnerController.showOwner").timer();
+		assertThat(showOwner).isNotNull();
+		assertThat(showOwner.count()).isEqualTo(2);
+		assertThat(showOwner.getId().getTag("statements")).isNotEqualTo("0");
+		Timer welcome = registry.find(HandlerMetrics.REQUESTS).tag("handler", "WelcomeController.welcome").timer();
+		assertThat(welcome.getId().getTag("statements")).isEqualTo("0");
+		assertThat(registry.find(HandlerMetrics.ENTITIES).tag("handler", "OwnerController.showOwner").summary().max())
+			.isGreaterThan(0);
+
+		mockMvc.perform(get("/actuator/handlers").param("sort", "statements").param("limit", "1"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.length()").value(1))
+			.andExpect(jsonPath("$[0].handler").value("OwnerController.showOwner"))
+			.andExpect(jsonPath("$[0].requests").value(2))
+			.andExpect(jsonPath("$[0].statementsPerRequest").value(greaterThan(0.0)))
+			.andExpect(jsonPath("$[0].p99Millis").value(greaterThan(0.0)));
+		mockMvc.perform(get("/actuator/handlers").param("sort", "size")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void shouldNameCountRanges() {
+		assertThat(HandlerMetrics.range(0)).isEqualTo("0");
+		assertThat(HandlerMetrics.range(1)).isEqualTo("1");
+		assertThat(HandlerMetrics.range(2)).isEqualTo("2-5");
+		assertThat(HandlerMetrics.range(20)).isEqualTo("6-20");
+		assertThat(HandlerMetrics.range(100)).isEqualTo("21-100");
+		assertThat(HandlerMetrics.range(101)).isEqualTo("101+");
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+/**
+ * Counts the statements of each test as the {@link RequestStatistics} of a request, with
+ * the {@link QueryBudget} of the test method or, failing that, of the test class. The
+ * data source must be inspected, e.g. with an {@code @Import} of
+ * {@link RequestStatisticsConfiguration} in a {@code @DataJpaTest}; in strict mode, the
+ * statement over budget then fails the test.
+ */
+public class QueryBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+	@Override
+	public void beforeEach(ExtensionContext context) {
+		Method method = context.getRequiredTestMethod();
+		QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(method, QueryBudget.class);
+		if (budget == null) {
+			budget = AnnotatedElementUtils.findMergedAnnotation(context.getRequiredTestClass(), QueryBudget.class);
+		}
+		RequestStatistics.start(context.getRequiredTestClass().getSimpleName() + "." + method.getName(),
+				(budget != null) ? budget.value() : -1);
+	}
+
+	@Override
+	public void afterEach(ExtensionContext context) {
+		RequestStatistics.stop();
+	}
+
+}
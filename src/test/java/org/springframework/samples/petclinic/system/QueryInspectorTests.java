@@ -0,0 +1,83 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link QueryInspector}
+ */
+class QueryInspectorTests {
+
+	private static final List<QueryInfo> QUERY = List.of(new QueryInfo("select * from vets"));
+
+	@AfterEach
+	void stop() {
+		RequestStatistics.stop();
+	}
+
+	@Test
+	void shouldFoldLiteralsAndInLists() {
+		assertThat(QueryInspector.shape("SELECT * FROM pets  WHERE owner_id = 42\n AND name = 'O''Neil'"))
+			.isEqualTo("select * from pets where owner_id = ? and name = ?");
+		assertThat(QueryInspector.shape("select * from visits where pet_id in (?, ?,?)"))
+			.isEqualTo(QueryInspector.shape("select * from visits where pet_id in (1, 2)"))
+			.isEqualTo("select * from visits where pet_id in (...)");
+	}
+
+	@Test
+	void shouldCountStatementsOfCurrentThread() {
+		QueryInspector inspector = new QueryInspector(Duration.ofSeconds(1), 5, true);
+		inspector.beforeQuery(new ExecutionInfo(), QUERY);
+		RequestStatistics statistics = RequestStatistics.start("test", -1);
+		inspector.beforeQuery(new ExecutionInfo(), QUERY);
+		inspector.beforeQuery(new ExecutionInfo(), QUERY);
+		assertThat(statistics.getStatements()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldFailStatementOverBudgetInStrictMode() {
+		QueryInspector inspector = new QueryInspector(Duration.ofSeconds(1), 5, true);
+		RequestStatistics.start("VetController.showVetList", 1);
+		inspector.beforeQuery(new ExecutionInfo(), QUERY);
+		assertThatThrownBy(() -> inspector.beforeQuery(new ExecutionInfo(), QUERY))
+			.isInstanceOf(QueryBudgetExceededException.class)
+			.hasMessageContaining("VetController.showVetList is over its budget of 1 statements");
+	}
+
+	@Test
+	void shouldOnlyWarnAboutStatementOverBudget() {
+		QueryInspector inspector = new QueryInspector(Duration.ofSeconds(1), 5, false);
+		RequestStatistics statistics = RequestStatistics.start("VetController.showVetList", 1);
+		assertThatNoException().isThrownBy(() -> {
+			inspector.beforeQuery(new ExecutionInfo(), QUERY);
+			inspector.beforeQuery(new ExecutionInfo(), QUERY);
+		});
+		assertThat(statistics.getStatements()).isEqualTo(2);
+	}
+
+}
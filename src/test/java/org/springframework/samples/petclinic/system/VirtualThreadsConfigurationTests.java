@@ -0,0 +1,53 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link VirtualThreadsConfiguration}
+ */
+class VirtualThreadsConfigurationTests {
+
+	@Test
+	void shouldKeepPoolBelowCarrierThreads() {
+		BeanPostProcessor postProcessor = VirtualThreadsConfiguration
+			.virtualThreadsDataSourcePostProcessor(new MockEnvironment());
+		try (HikariDataSource dataSource = new HikariDataSource()) {
+			postProcessor.postProcessBeforeInitialization(dataSource, "dataSource");
+			assertThat(dataSource.getMaximumPoolSize())
+				.isEqualTo(Math.max(1, VirtualThreadPinningGuard.carrierThreads() - 1));
+		}
+	}
+
+	@Test
+	void shouldKeepExplicitPoolSize() {
+		BeanPostProcessor postProcessor = VirtualThreadsConfiguration.virtualThreadsDataSourcePostProcessor(
+				new MockEnvironment().withProperty("spring.datasource.hikari.maximum-pool-size", "32"));
+		try (HikariDataSource dataSource = new HikariDataSource()) {
+			dataSource.setMaximumPoolSize(32);
+			postProcessor.postProcessBeforeInitialization(dataSource, "dataSource");
+			assertThat(dataSource.getMaximumPoolSize()).isEqualTo(32);
+		}
+	}
+
+}
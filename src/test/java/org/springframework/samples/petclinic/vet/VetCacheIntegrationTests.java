@@ -0,0 +1,131 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.vet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.domain.PageRequest;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Integration test of the "vets" cache as configured by the
+ * {@code petclinic.cache.specs.vets} property.
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+		"logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN" })
+class VetCacheIntegrationTests {
+
+	@Autowired
+	private VetRepository vets;
+
+	@Autowired
+	private VetsSerializer vetsSerializer;
+
+	@Autowired
+	private VetSpecialtyIndexer vetSpecialtyIndexer;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private com.github.benmanes.caffeine.cache.Cache<Object, Object> cache;
+
+	@BeforeEach
+	void setup() {
+		this.cache = ((CaffeineCache) this.cacheManager.getCache("vets")).getNativeCache();
+		this.cache.invalidateAll();
+	}
+
+	@Test
+	void cacheIsBoundedByTheNumberOfVets() throws Exception {
+		assertThat(this.cache.policy().eviction()).hasValueSatisfying(eviction -> {
+			assertThat(eviction.isWeighted()).isTrue();
+			assertThat(eviction.getMaximum()).isEqualTo(20000);
+		});
+		this.vets.findAll();
+		this.vets.findAll(PageRequest.of(0, 5));
+		this.cache.cleanUp();
+		assertThat(this.cache.policy().eviction().get().weightedSize()).hasValue(6 + 5);
+
+		// the JSON and the specialty index of all the vets weigh as much as the vets
+		this.vetsSerializer.serialize();
+		this.vetSpecialtyIndexer.index();
+		this.cache.cleanUp();
+		assertThat(this.cache.policy().eviction().get().weightedSize()).hasValue(6 + 5 + 6 + 6);
+	}
+
+	@Test
+	void cacheStatisticsArePublished() {
+		double hits = this.meterRegistry.get("cache.gets")
+			.tag("cache", "vets")
+			.tag("result", "hit")
+			.functionCounter()
+			.count();
+		this.vets.findAll();
+		this.vets.findAll();
+		assertThat(this.meterRegistry.get("cache.gets")
+			.tag("cache", "vets")
+			.tag("result", "hit")
+			.functionCounter()
+			.count()).isEqualTo(hits + 1);
+	}
+
+	@Test
+	void serializedVetsAreCachedWithTheVets() throws Exception {
+		SerializedVets serialized = this.vetsSerializer.serialize();
+		assertThat(this.vetsSerializer.serialize()).isSameAs(serialized);
+
+		this.cache.invalidateAll();
+		assertThat(this.vetsSerializer.serialize()).isNotSameAs(serialized)
+			.extracting(SerializedVets::eTag)
+			.isEqualTo(serialized.eTag());
+	}
+
+	@Test
+	void refreshReloadsFromTheDatabase() {
+		this.vets.findAll();
+		Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		Object reloaded = ((LoadingCache<Object, Object>) this.cache).refresh(SimpleKey.EMPTY).join();
+
+		assertThat(statistics.getPrepareStatementCount()).isPositive();
+		assertThat((Collection<?>) reloaded).hasSize(6);
+		assertThat(this.cache.getIfPresent(SimpleKey.EMPTY)).isSameAs(reloaded);
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.vet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.samples.petclinic.vet.VetSpecialtyIndex.Match;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration test of the invalidation of the "vets" cache by {@link VetRepository}
+ * writes, by changes to the {@code cache_versions} table and by the actuator endpoint.
+ */
+@SpringBootTest(properties = "petclinic.cache.vets.version-poll-interval=PT1H")
+@AutoConfigureMockMvc
+@DirtiesContext
+class VetCacheInvalidationIntegrationTests {
+
+	@Autowired
+	private VetRepository vets;
+
+	@Autowired
+	private VetCacheInvalidator invalidator;
+
+	@Autowired
+	private VetSpecialtyIndexer specialtyIndexer;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private JdbcClient jdbcClient;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private com.github.benmanes.caffeine.cache.Cache<Object, Object> cache;
+
+	@BeforeEach
+	void setup() {
+		this.cache = ((CaffeineCache) this.cacheManager.getCache("vets")).getNativeCache();
+		this.invalidator.pollVersion();
+		this.vets.findAll();
+		assertThat(this.cache.estimatedSize()).isOne();
+	}
+
+	@Test
+	void saveEvictsTheCacheAndIncrementsTheVersion() {
+		long version = version();
+		Vet vet = new Vet();
+		vet.setFirstName("Sam");
+		vet.setLastName("Schultz");
+		this.vets.save(vet);
+
+		assertThat(this.cache.estimatedSize()).isZero();
+		assertThat(version()).isEqualTo(version + 1);
+		assertThat(this.vets.findAll()).extracting(Vet::getLastName).contains("Schultz");
+	}
+
+	@Test
+	void changesAreInvalidatedOnceAfterCommit() {
+		long version = version();
+		List<Specialty> specialties = this.vets.findAll()
+			.stream()
+			.flatMap(vet -> vet.getSpecialties().stream())
+			.distinct()
+			.toList();
+		new TransactionTemplate(this.transactionManager).executeWithoutResult(status -> {
+			for (String lastName : List.of("Olsen", "Park")) {
+				Vet vet = new Vet();
+				vet.setFirstName("Kim");
+				vet.setLastName(lastName);
+				specialties.forEach(vet::addSpecialty);
+				this.vets.save(vet);
+			}
+			status.flush();
+			// not yet committed: other readers still see the cached vets
+			assertThat(this.cache.estimatedSize()).isOne();
+			assertThat(version()).isEqualTo(version);
+		});
+
+		assertThat(this.cache.estimatedSize()).isZero();
+		assertThat(version()).isEqualTo(version + 1);
+	}
+
+	@Test
+	void specialtyChangeIncrementsTheVersion() {
+		long version = version();
+		Vet carter = this.vets.findAll().stream().filter(vet -> vet.getNrOfSpecialties() == 0).findFirst().get();
+		Vet specialist = this.vets.findAll().stream().filter(vet -> vet.getNrOfSpecialties() > 0).findFirst().get();
+		carter.addSpecialty(specialist.getSpecialties().get(0));
+		this.vets.save(carter);
+
+		assertThat(version()).isEqualTo(version + 1);
+	}
+
+	@Test
+	void specialtyChangeRebuildsTheSpecialtyIndex() {
+		Vet specialist = this.vets.findAll().stream().filter(vet -> vet.getNrOfSpecialties() > 0).findFirst().get();
+		List<String> specialty = List.of(specialist.getSpecialties().get(0).getName());
+		int found = this.specialtyIndexer.index().find(specialty, Match.ALL).size();
+		Vet carter = this.vets.findAll().stream().filter(vet -> vet.getNrOfSpecialties() == 0).findFirst().get();
+		carter.addSpecialty(specialist.getSpecialties().get(0));
+		this.vets.save(carter);
+
+		assertThat(this.specialtyIndexer.index().find(specialty, Match.ALL)).hasSize(found + 1)
+			.extracting(Vet::getId)
+			.contains(carter.getId());
+	}
+
+	@Test
+	void versionChangeMadeInTheDatabaseEvictsTheCache() {
+		this.invalidator.pollVersion();
+		assertThat(this.cache.estimatedSize()).isOne();
+
+		this.jdbcClient.sql("UPDATE cache_versions SET version = version + 1 WHERE name = 'vets'").update();
+		this.invalidator.pollVersion();
+		assertThat(this.cache.estimatedSize()).isZero();
+	}
+
+	@Test
+	void endpointInvalidatesTheCache() throws Exception {
+		long version = version();
+		mockMvc.perform(delete("/actuator/vetscache")).andExpect(status().isNoContent());
+		assertThat(this.cache.estimatedSize()).isZero();
+		assertThat(version()).isEqualTo(version + 1);
+	}
+
+	private long version() {
+		return this.jdbcClient.sql("SELECT version FROM cache_versions WHERE name = 'vets'").query(Long.class).single();
+	}
+
+}
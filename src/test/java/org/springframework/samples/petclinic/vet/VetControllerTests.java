@@ -22,8 +22,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledInNativeImage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -41,6 +43,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  */
 
 @WebMvcTest(VetController.class)
+@Import({ VetsSerializer.class, VetSpecialtyIndexer.class })
 @DisabledInNativeImage
 @DisabledInAotMode
 class VetControllerTests {
@@ -95,6 +98,42 @@ class VetControllerTests {
 			.andExpect(status().isOk());
 		actions.andExpect(content().contentType(MediaType.APPLICATION_JSON))
 			.andExpect(jsonPath("$.vetList[0].id").value(1));
+		actions.andExpect(header().exists(HttpHeaders.ETAG));
+	}
+
+	@Test
+	void testShowResourcesVetListNotModified() throws Exception {
+		String eTag = mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON))
+			.andReturn()
+			.getResponse()
+			.getHeader(HttpHeaders.ETAG);
+		mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, eTag))
+			.andExpect(status().isNotModified())
+			.andExpect(header().string(HttpHeaders.ETAG, eTag))
+			.andExpect(content().bytes(new byte[0]));
+	}
+
+	@Test
+	void testFindVetsBySpecialty() throws Exception {
+		mockMvc.perform(get("/vets").param("specialty", "Radiology").accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.vetList.length()").value(1))
+			.andExpect(jsonPath("$.vetList[0].id").value(2));
+		mockMvc.perform(get("/vets").param("specialty", "radiology", "surgery").accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.vetList.length()").value(0));
+		mockMvc
+			.perform(get("/vets").param("specialty", "radiology,surgery")
+				.param("match", "any")
+				.accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.vetList[0].id").value(2));
+	}
+
+	@Test
+	void testFindVetsBySpecialtyWithUnknownMatch() throws Exception {
+		mockMvc.perform(get("/vets").param("specialty", "radiology").param("match", "some"))
+			.andExpect(status().isBadRequest());
 	}
 
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.vet.VetSpecialtyIndex.Match;
+
+/**
+ * Test class for {@link VetSpecialtyIndex}
+ */
+class VetSpecialtyIndexTests {
+
+	private VetSpecialtyIndex index;
+
+	@BeforeEach
+	void setup() {
+		Specialty radiology = specialty(1, "radiology");
+		Specialty surgery = specialty(2, "surgery");
+		Specialty dentistry = specialty(3, "dentistry");
+		this.index = VetSpecialtyIndex.of(List.of(vet(6), vet(2, radiology), vet(3, dentistry, surgery),
+				vet(4, surgery), vet(5, radiology), vet(1)));
+	}
+
+	@Test
+	void shouldFindVetsWithAllSpecialties() {
+		assertThat(ids(this.index.find(List.of("surgery"), Match.ALL))).containsExactly(3, 4);
+		assertThat(ids(this.index.find(List.of("Surgery", "DENTISTRY"), Match.ALL))).containsExactly(3);
+		assertThat(ids(this.index.find(List.of("surgery", "radiology"), Match.ALL))).isEmpty();
+		assertThat(ids(this.index.find(List.of("surgery", "cardiology"), Match.ALL))).isEmpty();
+	}
+
+	@Test
+	void shouldFindVetsWithAnySpecialty() {
+		assertThat(ids(this.index.find(List.of("radiology", "dentistry"), Match.ANY))).containsExactly(2, 3, 5);
+		assertThat(ids(this.index.find(List.of("cardiology", "surgery"), Match.ANY))).containsExactly(3, 4);
+	}
+
+	@Test
+	void shouldNotChangeIndexWhenCombiningBitmaps() {
+		this.index.find(List.of("surgery", "radiology"), Match.ALL);
+		this.index.find(List.of("radiology", "surgery"), Match.ANY);
+
+		assertThat(ids(this.index.find(List.of("surgery"), Match.ALL))).containsExactly(3, 4);
+		assertThat(ids(this.index.find(List.of("radiology"), Match.ALL))).containsExactly(2, 5);
+	}
+
+	@Test
+	void shouldFindNothingWithoutSpecialty() {
+		assertThat(this.index.find(List.of(), Match.ANY)).isEmpty();
+		assertThat(this.index.size()).isEqualTo(6);
+	}
+
+	private static Specialty specialty(int id, String name) {
+		Specialty specialty = new Specialty();
+		specialty.setId(id);
+		specialty.setName(name);
+		return specialty;
+	}
+
+	private static Vet vet(int id, Specialty... specialties) {
+		Vet vet = new Vet();
+		vet.setId(id);
+		for (Specialty specialty : specialties) {
+			vet.addSpecialty(specialty);
+		}
+		return vet;
+	}
+
+	private static List<Integer> ids(List<Vet> vets) {
+		return vets.stream().map(Vet::getId).toList();
+	}
+
+}